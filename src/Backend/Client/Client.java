@@ -40,4 +40,18 @@ public class Client {
 
     }
 
+    /**
+     * communicate over a kept-alive connection from the pool instead of a new socket
+     *
+     * @param pool connection pool
+     */
+    public void communicateWithServer(ClientConnectionPool pool) {
+        try {
+            pool.communicate(this.serverIP, this.serverPort, this.strategy);
+        } catch (ConnectException e) {
+            System.out.println("Cant find server...");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 }
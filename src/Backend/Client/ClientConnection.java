@@ -0,0 +1,189 @@
+package Backend.Client;
+
+import Backend.Server.KeepAliveProtocol;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * persistent connection to a server - many requests over one socket using the KeepAliveProtocol.
+ * strategies run over in-memory streams: what a strategy writes is sent as one frame when it first reads,
+ * and its reads are served from the answer frame. a strategy must write its whole request before it reads.
+ */
+public class ClientConnection implements Closeable {
+    private final InetSocketAddress serverAddress;
+    private final Socket socket;
+    private final DataInputStream fromServer;
+    private final DataOutputStream toServer;
+    private boolean broken;
+
+    /**
+     * constructor
+     * connect to the server and send the preface
+     *
+     * @param serverIP   server ip
+     * @param serverPort server port
+     * @throws IOException failed to connect
+     */
+    public ClientConnection(InetAddress serverIP, int serverPort) throws IOException {
+        this.serverAddress = new InetSocketAddress(serverIP, serverPort);
+        this.socket = new Socket(serverIP, serverPort);
+        this.socket.setTcpNoDelay(true);
+        this.fromServer = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+        this.toServer = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+        this.toServer.writeInt(KeepAliveProtocol.PREFACE);
+        this.toServer.flush();
+    }
+
+    /**
+     * run one request of a client strategy over the connection
+     *
+     * @param strategy client strategy - need to compatible with the server
+     * @throws IOException the connection failed, it can not be used anymore
+     */
+    public synchronized void communicate(IClientStrategy strategy) throws IOException {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        AnswerStream answer = new AnswerStream(request);
+        strategy.clientStrategy(answer, request);
+        if (this.broken)
+            throw new IOException("connection to the server failed");
+        if (request.size() > 0)
+            answer.answer(); //the strategy did not read the answer, keep the connection in order
+    }
+
+    /**
+     * send a request frame without waiting for its answer, answers come back in the order of the requests.
+     * every sent request must be received before communicate or ping are used.
+     *
+     * @param request request payload, not empty
+     * @throws IOException the connection failed, it can not be used anymore
+     */
+    public synchronized void send(byte[] request) throws IOException {
+        if (request.length == 0)
+            throw new IllegalArgumentException("an empty request is a ping");
+        try {
+            KeepAliveProtocol.writeFrame(this.toServer, request);
+            this.toServer.flush();
+        } catch (IOException e) {
+            this.fail();
+            throw e;
+        }
+    }
+
+    /**
+     * @return answer of the oldest request that its answer was not received yet
+     * @throws IOException the connection failed, it can not be used anymore
+     */
+    public synchronized byte[] receive() throws IOException {
+        try {
+            byte[] answer = KeepAliveProtocol.readFrame(this.fromServer);
+            if (answer == null)
+                throw new EOFException("the server closed the connection");
+            return answer;
+        } catch (IOException e) {
+            this.fail();
+            throw e;
+        }
+    }
+
+    /**
+     * check that the server still answers on this connection
+     *
+     * @return true if the server answered the ping
+     */
+    public synchronized boolean ping() {
+        if (this.broken)
+            return false;
+        try {
+            return exchange(new byte[0]).length == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return address of the server
+     */
+    public InetSocketAddress getServerAddress() {
+        return this.serverAddress;
+    }
+
+    /**
+     * @return true if the connection can still be used
+     */
+    public boolean isOpen() {
+        return !this.broken && !this.socket.isClosed();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.broken = true;
+        this.socket.close();
+    }
+
+    /**
+     * send a frame and wait for its answer
+     *
+     * @param request frame payload
+     * @return the answer payload
+     * @throws IOException the connection failed
+     */
+    private byte[] exchange(byte[] request) throws IOException {
+        if (this.broken)
+            throw new IOException("the connection is closed");
+        try {
+            KeepAliveProtocol.writeFrame(this.toServer, request);
+            this.toServer.flush();
+            byte[] answer = KeepAliveProtocol.readFrame(this.fromServer);
+            if (answer == null)
+                throw new EOFException("the server closed the connection");
+            return answer;
+        } catch (IOException e) {
+            this.fail();
+            throw e;
+        }
+    }
+
+    private void fail() {
+        this.broken = true;
+        try {
+            this.socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * answer of one strategy request - the request is sent on the first read
+     */
+    private class AnswerStream extends InputStream {
+        private final ByteArrayOutputStream request;
+        private ByteArrayInputStream answer;
+
+        private AnswerStream(ByteArrayOutputStream request) {
+            this.request = request;
+        }
+
+        private ByteArrayInputStream answer() throws IOException {
+            if (this.answer == null)
+                this.answer = new ByteArrayInputStream(exchange(this.request.toByteArray()));
+            return this.answer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.answer().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return this.answer().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.answer().available();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package Backend.Client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * pool of kept-alive connections (ClientConnection), bounded per server address.
+ * a connection that was idle for a while is pinged before it is lent again,
+ * connections that were idle longer than the idle timeout are closed.
+ */
+public class ClientConnectionPool implements Closeable {
+    private static final long VALIDATE_AFTER_IDLE_MS = 2000;
+
+    private final int maxConnectionsPerServer;
+    private final long idleTimeoutMS;
+    private final Map<InetSocketAddress, ServerConnections> servers;
+    private boolean closed;
+
+    /**
+     * constructor
+     *
+     * @param maxConnectionsPerServer maximum connections to one server, borrow waits when all of them are in use
+     * @param idleTimeoutMS           idle connections are closed after it
+     * @throws IllegalArgumentException maxConnectionsPerServer cant be < 1, idleTimeoutMS cant be < 0
+     */
+    public ClientConnectionPool(int maxConnectionsPerServer, long idleTimeoutMS) throws IllegalArgumentException {
+        if (maxConnectionsPerServer < 1)
+            throw new IllegalArgumentException("maxConnectionsPerServer cant be < 1");
+        if (idleTimeoutMS < 0)
+            throw new IllegalArgumentException("idleTimeoutMS cant be < 0");
+        this.maxConnectionsPerServer = maxConnectionsPerServer;
+        this.idleTimeoutMS = idleTimeoutMS;
+        this.servers = new HashMap<>();
+    }
+
+    /**
+     * borrow a connection to a server, it must be given back with release
+     *
+     * @param serverIP   server ip
+     * @param serverPort server port
+     * @return open connection to the server
+     * @throws IOException failed to connect, or interrupted while waiting for a connection
+     */
+    public ClientConnection borrow(InetAddress serverIP, int serverPort) throws IOException {
+        ServerConnections server = this.server(new InetSocketAddress(serverIP, serverPort));
+        try {
+            server.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a connection");
+        }
+        try {
+            while (true) {
+                IdleConnection idle;
+                synchronized (this) {
+                    if (this.closed)
+                        throw new IOException("the pool is closed");
+                    this.evictIdle();
+                    idle = server.idle.pollLast(); //the most recently used, the others may expire
+                }
+                if (idle == null)
+                    return new ClientConnection(serverIP, serverPort);
+                if (System.currentTimeMillis() - idle.since < VALIDATE_AFTER_IDLE_MS || idle.connection.ping())
+                    return idle.connection;
+                idle.connection.close(); //the server closed it
+            }
+        } catch (IOException | RuntimeException e) {
+            server.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * give back a borrowed connection, a broken one is dropped
+     *
+     * @param connection connection from borrow
+     * @throws IllegalArgumentException the connection is not from this pool
+     */
+    public void release(ClientConnection connection) throws IllegalArgumentException {
+        ServerConnections server;
+        boolean keep;
+        synchronized (this) {
+            server = this.servers.get(connection.getServerAddress());
+            if (server == null)
+                throw new IllegalArgumentException("the connection is not from this pool");
+            keep = !this.closed && connection.isOpen();
+            if (keep)
+                server.idle.addLast(new IdleConnection(connection));
+        }
+        if (!keep)
+            closeQuietly(connection);
+        server.permits.release();
+    }
+
+    /**
+     * run a client strategy over a pooled connection.
+     * if the connection fails the strategy runs once more over a new connection.
+     *
+     * @param serverIP   server ip
+     * @param serverPort server port
+     * @param strategy   client strategy - need to compatible with the server
+     * @throws IOException failed to communicate with the server
+     */
+    public void communicate(InetAddress serverIP, int serverPort, IClientStrategy strategy) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            ClientConnection connection = this.borrow(serverIP, serverPort);
+            try {
+                connection.communicate(strategy);
+                return;
+            } catch (IOException e) {
+                if (attempt == 2)
+                    throw e;
+            } finally {
+                this.release(connection);
+            }
+        }
+    }
+
+    /**
+     * close the connections that were idle longer than the idle timeout
+     */
+    public synchronized void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (ServerConnections server : this.servers.values()) {
+            Iterator<IdleConnection> idle = server.idle.iterator(); //oldest first
+            while (idle.hasNext()) {
+                IdleConnection next = idle.next();
+                if (now - next.since < this.idleTimeoutMS)
+                    break;
+                idle.remove();
+                closeQuietly(next.connection);
+            }
+        }
+    }
+
+    /**
+     * close all idle connections, borrowed connections are closed when they are released
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        for (ServerConnections server : this.servers.values()) {
+            for (IdleConnection idle : server.idle)
+                closeQuietly(idle.connection);
+            server.idle.clear();
+        }
+    }
+
+    private synchronized ServerConnections server(InetSocketAddress address) {
+        return this.servers.computeIfAbsent(address, key -> new ServerConnections(this.maxConnectionsPerServer));
+    }
+
+    private static void closeQuietly(ClientConnection connection) {
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * connections of one server
+     */
+    private static class ServerConnections {
+        private final Semaphore permits; //one for every connection that may be borrowed
+        private final ArrayDeque<IdleConnection> idle = new ArrayDeque<>(); //oldest first
+
+        private ServerConnections(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+
+    private static class IdleConnection {
+        private final ClientConnection connection;
+        private final long since = System.currentTimeMillis();
+
+        private IdleConnection(ClientConnection connection) {
+            this.connection = connection;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package Backend.IO;
+
+import java.util.Arrays;
+
+/**
+ * adaptive probability model of the maze cells for the context compressor pair.
+ * the probability of a WALL is learned separately for every context - the already coded neighbours
+ * (up, left, up-left, up-right, two up, two left) and the parity of the row and the column,
+ * so the odd/even lattice of DFS mazes is predicted almost for free.
+ * the compressor and the decompressor keep the same model, so they see the same probabilities.
+ */
+class CellContextModel {
+    static final int PROBABILITY_BITS = 11, PROBABILITY_ONE = 1 << PROBABILITY_BITS; //probability of 0 (TILE) out of 2048
+    private static final int ADAPT_SHIFT = 5, CONTEXTS = 1 << 8, OUTSIDE = 1; //cells outside the maze count as WALLs
+    private final int[] probabilities = new int[CONTEXTS];
+    private byte[] upUp = new byte[0], up = new byte[0], current = new byte[0]; //the last three rows
+    private int columns, row, column;
+
+    /**
+     * start a new maze, everything learned before is forgotten
+     *
+     * @param columns number of columns of the maze
+     */
+    void reset(int columns) {
+        Arrays.fill(this.probabilities, PROBABILITY_ONE / 2);
+        if (this.current.length != columns) {
+            this.upUp = new byte[columns];
+            this.up = new byte[columns];
+            this.current = new byte[columns];
+        }
+        this.columns = columns;
+        this.row = 0;
+        this.column = 0;
+    }
+
+    /**
+     * @return context of the next cell
+     */
+    int context() {
+        int c = this.column;
+        boolean hasUp = this.row > 0, hasLeft = c > 0;
+        int upCell = hasUp ? this.up[c] : OUTSIDE;
+        int leftCell = hasLeft ? this.current[c - 1] : OUTSIDE;
+        int upLeftCell = hasUp && hasLeft ? this.up[c - 1] : OUTSIDE;
+        int upRightCell = hasUp && c + 1 < this.columns ? this.up[c + 1] : OUTSIDE;
+        int upUpCell = this.row > 1 ? this.upUp[c] : OUTSIDE;
+        int leftLeftCell = c > 1 ? this.current[c - 2] : OUTSIDE;
+        return upCell | leftCell << 1 | upLeftCell << 2 | upRightCell << 3 | upUpCell << 4 | leftLeftCell << 5
+                | (this.row & 1) << 6 | (c & 1) << 7;
+    }
+
+    /**
+     * @param context context of the cell
+     * @return probability that the cell is a TILE, out of PROBABILITY_ONE
+     */
+    int probability(int context) {
+        return this.probabilities[context];
+    }
+
+    /**
+     * learn the coded cell and move to the next one
+     *
+     * @param context context of the cell
+     * @param cell    1 for WALL, 0 for TILE
+     */
+    void update(int context, int cell) {
+        if (cell == 0)
+            this.probabilities[context] += (PROBABILITY_ONE - this.probabilities[context]) >>> ADAPT_SHIFT;
+        else
+            this.probabilities[context] -= this.probabilities[context] >>> ADAPT_SHIFT;
+        this.current[this.column++] = (byte) cell;
+        if (this.column == this.columns) { //next row - rotate the rows
+            byte[] oldest = this.upUp;
+            this.upUp = this.up;
+            this.up = this.current;
+            this.current = oldest;
+            this.column = 0;
+            this.row++;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package Backend.IO;
+
+import Backend.algorithms.mazeGenerators.MazeHeader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * context compress output stream - decorator pattern.
+ * compress maze as byte Array.
+ * the meta data stay the same, the cells are coded by an adaptive binary range coder (LZMA style),
+ * with the probability of every cell taken from CellContextModel - its neighbours and the row and column parity.
+ * the stream is incremental - a maze can be written in any number of parts, and many mazes can be written one after another.
+ * the coder of a maze is finished when its last cell is written, or on close.
+ */
+public class ContextCompressorOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192, TOP = 1 << 24;
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE]; //compressed bytes that are not written yet
+    private final byte[] metaData = new byte[MazeHeader.MAX_SIZE]; //meta data of the current maze
+    private final byte[] single = new byte[1];
+    private final CellContextModel model = new CellContextModel();
+    private int count; //number of bytes in the buffer
+    private int metaDataLength; //number of meta data bytes of the current maze that were written, 0 - between mazes
+    private int metaDataSize; //size of the meta data of the current maze
+    private long cellsLeft; //cells of the current maze that were not written yet
+    private long low; //range coder - low end of the range, 33 bits with the carry
+    private int range, cache; //range coder - size of the range (unsigned), byte that waits for a carry
+    private long cacheSize; //range coder - the cache byte and the 0xFF bytes after it that wait for a carry
+
+    /**
+     * Constructor
+     *
+     * @param out output stream to decorate
+     */
+    public ContextCompressorOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * compress methode
+     * the meta data is copied, then every cell is coded with the probability of its context.
+     *
+     * @param b   array of bytes represent maze, or a part of it
+     * @param off first byte to write
+     * @param len number of bytes to write
+     * @throws IOException failed to write to the decorated stream
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        int end = off + len;
+        while (off < end) {
+            //1 - meta data stay the same
+            if (this.metaDataLength == 0 || this.metaDataLength < this.metaDataSize) {
+                if (this.metaDataLength == 0)
+                    this.metaDataSize = MazeHeader.sizeOf(b[off]);
+                this.metaData[this.metaDataLength++] = b[off];
+                put(b[off++]);
+                if (this.metaDataLength == this.metaDataSize)
+                    startMaze();
+                continue;
+            }
+
+            //2 - code the cells
+            while (off < end && this.cellsLeft > 0) {
+                int cell = b[off++] & 1, context = this.model.context();
+                encode(cell, this.model.probability(context));
+                this.model.update(context, cell);
+                this.cellsLeft--;
+            }
+            if (this.cellsLeft == 0)
+                endMaze();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.single[0] = (byte) b;
+        write(this.single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        this.out.flush();
+    }
+
+    /**
+     * finish the coder of an unfinished maze and close the decorated stream
+     *
+     * @throws IOException failed to write to the decorated stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.metaDataLength > 0 && this.metaDataLength == this.metaDataSize)
+            endMaze();
+        drain();
+        this.out.close();
+        super.close();
+    }
+
+    /**
+     * the meta data of a maze was written - reset the model and the coder
+     *
+     * @throws IOException the meta data is not a maze header
+     */
+    private void startMaze() throws IOException {
+        MazeHeader header;
+        try {
+            header = MazeHeader.read(this.metaData, 0);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        this.cellsLeft = header.getCellsCount();
+        if (this.cellsLeft == 0) {
+            endMaze();
+            return;
+        }
+        this.model.reset(header.getColumns());
+        this.low = 0;
+        this.range = -1;
+        this.cache = 0;
+        this.cacheSize = 1;
+    }
+
+    /**
+     * write the last bytes of the coder (if the maze has cells) and everything that is buffered
+     *
+     * @throws IOException failed to write to the decorated stream
+     */
+    private void endMaze() throws IOException {
+        if (this.cacheSize > 0)
+            for (int i = 0; i < 5; i++)
+                shiftLow();
+        this.cacheSize = 0;
+        this.metaDataLength = 0;
+        drain();
+    }
+
+    /**
+     * @param bit         the cell
+     * @param probability probability of 0, out of CellContextModel.PROBABILITY_ONE
+     * @throws IOException failed to write to the decorated stream
+     */
+    private void encode(int bit, int probability) throws IOException {
+        int bound = (this.range >>> CellContextModel.PROBABILITY_BITS) * probability;
+        if (bit == 0)
+            this.range = bound;
+        else {
+            this.low += bound & 0xFFFFFFFFL;
+            this.range -= bound;
+        }
+        while (Integer.compareUnsigned(this.range, TOP) < 0) {
+            this.range <<= 8;
+            shiftLow();
+        }
+    }
+
+    /**
+     * move the top byte of low out, a byte is written only when it is known that no carry can change it
+     *
+     * @throws IOException failed to write to the decorated stream
+     */
+    private void shiftLow() throws IOException {
+        if (this.low < 0xFF000000L || this.low > 0xFFFFFFFFL) {
+            int carry = (int) (this.low >>> 32), value = this.cache;
+            do {
+                put((byte) (value + carry));
+                value = 0xFF;
+            } while (--this.cacheSize != 0);
+            this.cache = (int) (this.low >>> 24) & 0xFF;
+        }
+        this.cacheSize++;
+        this.low = (this.low & 0x00FFFFFFL) << 8;
+    }
+
+    private void put(byte value) throws IOException {
+        if (this.count == this.buffer.length)
+            drain();
+        this.buffer[this.count++] = value;
+    }
+
+    private void drain() throws IOException {
+        if (this.count > 0) {
+            this.out.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package Backend.IO;
+
+import Backend.algorithms.mazeGenerators.MazeHeader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * context decompress input stream - decorator pattern.
+ * decompress maze as byte Array that was compressed by ContextCompressorOutputStream.
+ * the stream is incremental - a maze can be read in any number of parts, and many mazes can be read one after another.
+ */
+public class ContextDecompressorInputStream extends InputStream {
+    private static final int BUFFER_SIZE = 8192, TOP = 1 << 24;
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE]; //compressed bytes that are not decompressed yet
+    private final byte[] metaData = new byte[MazeHeader.MAX_SIZE]; //meta data of the current maze
+    private final byte[] single = new byte[1];
+    private final CellContextModel model = new CellContextModel();
+    private int position, limit; //next byte and end of the buffer
+    private int metaDataLength; //number of meta data bytes of the current maze that were read, 0 - between mazes
+    private int metaDataSize; //size of the meta data of the current maze
+    private long cellsLeft; //cells of the current maze that were not read yet
+    private boolean coderStarted; //the first bytes of the coder of the current maze were read
+    private int range, code; //range coder - size of the range and the coded value inside it (unsigned)
+
+    /**
+     * Constructor
+     *
+     * @param in input stream to decorate
+     */
+    public ContextDecompressorInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * decompress methode
+     * the meta data stay the same, then every cell is decoded with the probability of its context.
+     *
+     * @param b   the target
+     * @param off first byte of the target to fill
+     * @param len maximum number of bytes to read
+     * @return the total number of bytes read into the buffer, -1 at the end of the stream
+     * @throws IOException failed to read from the decorated stream or the maze ended in the middle
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        int start = off, end = off + len;
+        while (off < end) {
+            //1 - meta data stay the same
+            if (this.metaDataLength == 0 || this.metaDataLength < this.metaDataSize) {
+                if (this.position == this.limit && (off > start || !fill()))
+                    break;
+                b[off] = this.buffer[this.position++];
+                if (this.metaDataLength == 0)
+                    this.metaDataSize = MazeHeader.sizeOf(b[off]);
+                this.metaData[this.metaDataLength++] = b[off++];
+                if (this.metaDataLength == this.metaDataSize)
+                    startMaze();
+                continue;
+            }
+
+            //2 - decode the cells
+            if (!this.coderStarted) {
+                for (int i = 0; i < 5; i++)
+                    this.code = this.code << 8 | nextByte();
+                this.coderStarted = true;
+            }
+            while (off < end && this.cellsLeft > 0) {
+                int context = this.model.context(), cell = decode(this.model.probability(context));
+                this.model.update(context, cell);
+                b[off++] = (byte) cell;
+                this.cellsLeft--;
+            }
+            if (this.cellsLeft == 0)
+                this.metaDataLength = 0;
+        }
+        return off == start && len > 0 ? -1 : off - start;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(this.single, 0, 1) == -1 ? -1 : this.single[0] & 0xFF;
+    }
+
+    /**
+     * read one whole maze into the target
+     *
+     * @param b the target, at least as big as the maze
+     * @return the total number of bytes read into the buffer, -1 at the end of the stream
+     * @throws IOException              failed to read from the decorated stream or the maze ended in the middle
+     * @throws IllegalArgumentException the target byte Array given is null or too small
+     */
+    @Override
+    public int read(byte[] b) throws IOException, IllegalArgumentException {
+        if (b == null || b.length < MazeHeader.LEGACY_SIZE)
+            throw new IllegalArgumentException("the target byte Array given is null or too small");
+        if (this.metaDataLength != 0) //in the middle of a maze
+            return read(b, 0, b.length);
+
+        if (readFully(b, 0, 1) == 0)
+            return -1;
+        int metaDataSize = MazeHeader.sizeOf(b[0]);
+        if (b.length < metaDataSize)
+            throw new IllegalArgumentException("the target byte Array given is null or too small");
+        int length = readFully(b, 1, metaDataSize - 1) + 1;
+        long expectedSize = this.cellsLeft + metaDataSize;
+        if (b.length < expectedSize)
+            throw new IllegalArgumentException("the target byte Array given is null or too small");
+        return readFully(b, length, (int) expectedSize - length) + length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+        super.close();
+    }
+
+    /**
+     * the meta data of a maze was read - reset the model, the coder starts with the first cell
+     *
+     * @throws IOException the meta data is not a maze header
+     */
+    private void startMaze() throws IOException {
+        MazeHeader header;
+        try {
+            header = MazeHeader.read(this.metaData, 0);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        this.cellsLeft = header.getCellsCount();
+        if (this.cellsLeft == 0) {
+            this.metaDataLength = 0;
+            return;
+        }
+        this.model.reset(header.getColumns());
+        this.range = -1;
+        this.code = 0;
+        this.coderStarted = false;
+    }
+
+    /**
+     * @param probability probability of 0, out of CellContextModel.PROBABILITY_ONE
+     * @return the decoded cell
+     * @throws IOException failed to read or the maze ended in the middle
+     */
+    private int decode(int probability) throws IOException {
+        int bound = (this.range >>> CellContextModel.PROBABILITY_BITS) * probability, bit;
+        if (Integer.compareUnsigned(this.code, bound) < 0) {
+            this.range = bound;
+            bit = 0;
+        } else {
+            this.code -= bound;
+            this.range -= bound;
+            bit = 1;
+        }
+        while (Integer.compareUnsigned(this.range, TOP) < 0) {
+            this.range <<= 8;
+            this.code = this.code << 8 | nextByte();
+        }
+        return bit;
+    }
+
+    /**
+     * @param b   the target
+     * @param off first byte of the target to fill
+     * @param len number of bytes to read
+     * @return number of bytes read, 0 if the stream ended before the first byte
+     * @throws IOException failed to read or the stream ended in the middle
+     */
+    private int readFully(byte[] b, int off, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = read(b, off + read, len - read);
+            if (n == -1) {
+                if (read == 0 && off == 0)
+                    return 0;
+                throw new EOFException("the compressed maze ended in the middle");
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    private int nextByte() throws IOException {
+        if (this.position == this.limit && !fill())
+            throw new EOFException("the compressed maze ended in the middle");
+        return this.buffer[this.position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int n = this.in.read(this.buffer, 0, this.buffer.length);
+        if (n <= 0)
+            return false;
+        this.position = 0;
+        this.limit = n;
+        return true;
+    }
+}
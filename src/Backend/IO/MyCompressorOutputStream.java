@@ -1,15 +1,31 @@
 package Backend.IO;
 
+import Backend.algorithms.mazeGenerators.MazeHeader;
+
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
+import java.util.Objects;
 
 /**
  * my compress output stream - decorator pattern.
  * compress maze as byte Array.
+ * the meta data stay the same, the maze part is divided into chunks of 8.
+ * every 8 bytes in the array became one byte that represent as binary values, first cell in the lowest bit.
+ * 1,0,1,1,0,0,0,0 -> 00001101 -> (13)
+ * the stream is incremental - a maze can be written in any number of parts, and many mazes can be written one after another.
+ * the last byte of a maze is written when its last cell is written, or on close.
  */
 public class MyCompressorOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192;
     private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE]; //compressed bytes that are not written yet
+    private final byte[] metaData = new byte[MazeHeader.MAX_SIZE]; //meta data of the current maze
+    private final byte[] single = new byte[1];
+    private int count; //number of bytes in the buffer
+    private int metaDataLength; //number of meta data bytes of the current maze that were written, 0 - between mazes
+    private int metaDataSize; //size of the meta data of the current maze
+    private long cellsLeft; //cells of the current maze that were not written yet
+    private int bits, bitsCount; //cells of the current compressed byte
 
     /**
      * Constructor
@@ -22,71 +38,128 @@ public class MyCompressorOutputStream extends OutputStream {
 
     /**
      * compress methode
-     * the meta data stay the same, the maze part is divided into chunks of 8.
-     * every 8 bytes in the array became one byte that represent as binary values.
-     * 0,0,0,0,1,1,0,1 -> 00001101 -> (13)
+     * the meta data is copied, then every 8 cells are packed into one byte.
+     * when a maze ends its last byte is padded with 0 and the buffer is written to the decorated stream.
      *
-     * @param bytes array of bytes represent maze
-     * @return compressed maze as array
+     * @param b   array of bytes represent maze, or a part of it
+     * @param off first byte to write
+     * @param len number of bytes to write
+     * @throws IOException failed to write to the decorated stream
      */
-    private static byte[] compress(byte[] bytes) {
-        ArrayList<Byte> holder = new ArrayList<>(); //placeholder for our return array
-
-        //insert meta data
-        for (int i = 0; i < 12; i++)
-            holder.add(bytes[i]);
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        int end = off + len;
+        while (off < end) {
+            //1 - meta data stay the same
+            if (this.metaDataLength == 0 || this.metaDataLength < this.metaDataSize) {
+                if (this.metaDataLength == 0)
+                    this.metaDataSize = MazeHeader.sizeOf(b[off]);
+                this.metaData[this.metaDataLength++] = b[off];
+                put(b[off++]);
+                if (this.metaDataLength == this.metaDataSize) {
+                    this.cellsLeft = cellsCount(this.metaData);
+                    if (this.cellsLeft == 0)
+                        endMaze();
+                }
+                continue;
+            }
 
-        //compress maze
-        byte[] temp = new byte[8];
-        for (int i = 12; i < bytes.length; i += 8) {
-            for (int j = 0; j < 8; j++)
-                temp[j] = i + j < bytes.length ? bytes[i + j] : 0;
-            holder.add(toOneUnsignedByte(temp));
-        }
+            //2 - whole compressed bytes
+            while (this.bitsCount == 0 && this.cellsLeft >= 8 && end - off >= 8) {
+                if (this.count == this.buffer.length)
+                    drain();
+                int bytesCount = (int) Math.min(Math.min(this.cellsLeft, end - off) >> 3, this.buffer.length - this.count);
+                for (int i = 0; i < bytesCount; i++, off += 8)
+                    this.buffer[this.count++] = (byte) ((b[off] & 1) | (b[off + 1] & 1) << 1 | (b[off + 2] & 1) << 2 | (b[off + 3] & 1) << 3
+                            | (b[off + 4] & 1) << 4 | (b[off + 5] & 1) << 5 | (b[off + 6] & 1) << 6 | (b[off + 7] & 1) << 7);
+                this.cellsLeft -= 8L * bytesCount;
+            }
 
-        //prepare the result array
-        byte[] gridAsArray = new byte[holder.size()];
-        for (int i = 0; i < gridAsArray.length; i++) {
-            gridAsArray[i] = holder.get(i);
+            //3 - a compressed byte that is split between writes, or the last byte of the maze
+            while (off < end && this.cellsLeft > 0) {
+                this.bits |= (b[off++] & 1) << this.bitsCount++;
+                this.cellsLeft--;
+                if (this.bitsCount == 8) {
+                    put((byte) this.bits);
+                    this.bits = 0;
+                    this.bitsCount = 0;
+                    break;
+                }
+            }
+            if (this.cellsLeft == 0)
+                endMaze();
         }
-        return gridAsArray;
-    }
-
-    /**
-     * take 8 bytes that contains only 1 or 0, and makes them one byte
-     *
-     * @param array array of bytes in size 8
-     * @return one byte that represent the 8
-     * @throws IllegalArgumentException The given array length is bigger then 8
-     */
-    private static byte toOneUnsignedByte(byte[] array) throws IllegalArgumentException {
-        if (array.length > 8)
-            throw new IllegalArgumentException("The given array length is bigger then 8");
-        int sum = 0;
-        for (int i = 0; i < array.length; i++)
-            sum += array[i] * Math.pow(2, i);
-        return (byte) sum;
     }
 
     @Override
     public void write(int b) throws IOException {
-        this.out.write(b);
+        this.single[0] = (byte) b;
+        write(this.single, 0, 1);
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-        this.out.write(compress(b));
+        write(b, 0, b.length);
     }
 
     @Override
     public void flush() throws IOException {
+        drain();
         this.out.flush();
-        super.flush();
     }
 
+    /**
+     * write the last byte of an unfinished maze and close the decorated stream
+     *
+     * @throws IOException failed to write to the decorated stream
+     */
     @Override
     public void close() throws IOException {
+        if (this.metaDataLength > 0 && this.metaDataLength == this.metaDataSize)
+            endMaze();
+        drain();
         this.out.close();
         super.close();
     }
+
+    /**
+     * @param metaData meta data of a maze
+     * @return number of cells in the maze
+     * @throws IOException the meta data is not a maze header
+     */
+    private static long cellsCount(byte[] metaData) throws IOException {
+        try {
+            return MazeHeader.read(metaData, 0).getCellsCount();
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * write the last byte of the current maze and everything that is buffered
+     *
+     * @throws IOException failed to write to the decorated stream
+     */
+    private void endMaze() throws IOException {
+        if (this.bitsCount > 0)
+            put((byte) this.bits);
+        this.bits = 0;
+        this.bitsCount = 0;
+        this.metaDataLength = 0;
+        drain();
+    }
+
+    private void put(byte value) throws IOException {
+        if (this.count == this.buffer.length)
+            drain();
+        this.buffer[this.count++] = value;
+    }
+
+    private void drain() throws IOException {
+        if (this.count > 0) {
+            this.out.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
 }
@@ -1,15 +1,28 @@
 package Backend.IO;
 
+import Backend.algorithms.mazeGenerators.MazeHeader;
+
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.util.Objects;
 
 /**
  * my decompress input stream - decorator pattern.
  * decompress maze as byte Array.
+ * the stream is incremental - a maze can be read in any number of parts, and many mazes can be read one after another.
  */
 public class MyDecompressorInputStream extends InputStream {
-    private InputStream in;
+    private static final int BUFFER_SIZE = 8192;
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE]; //compressed bytes that are not decompressed yet
+    private final byte[] metaData = new byte[MazeHeader.MAX_SIZE]; //meta data of the current maze
+    private final byte[] single = new byte[1];
+    private int position, limit; //next byte and end of the buffer
+    private int metaDataLength; //number of meta data bytes of the current maze that were read, 0 - between mazes
+    private int metaDataSize; //size of the meta data of the current maze
+    private long cellsLeft; //cells of the current maze that were not read yet
+    private int bits, bitsLeft; //cells of the current compressed byte that were not read yet
 
     /**
      * Constructor
@@ -20,54 +33,112 @@ public class MyDecompressorInputStream extends InputStream {
         this.in = in;
     }
 
-
     /**
      * decompress methode
      * the meta data stay the same. for the maze part, expend every byte into 8.
-     * every byte in the array became 8 bytes, one for each bit of the byte.
-     * (13) -> 00001101 -> 0,0,0,0,1,1,0,1
+     * every byte in the array became 8 bytes, one for each bit of the byte, lowest bit first.
+     * (13) -> 00001101 -> 1,0,1,1,0,0,0,0
+     * the padding bits of the last byte of a maze are skipped.
      *
-     * @param bytes  array of bytes represent compressed maze
-     * @param target the target
-     * @return the total number of bytes read into the buffer
-     * @throws IllegalArgumentException the target byte Array given is null or too small
+     * @param b   the target
+     * @param off first byte of the target to fill
+     * @param len maximum number of bytes to read
+     * @return the total number of bytes read into the buffer, -1 at the end of the stream
+     * @throws IOException failed to read from the decorated stream
      */
-    private static int decompress(byte[] bytes, byte[] target) throws IllegalArgumentException {
-        ArrayList<Byte> holder = new ArrayList<>(); //placeholder for our return array
-
-        //insert meta data
-        for (int i = 0; i < 12; i++)
-            holder.add(bytes[i]);
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        int start = off, end = off + len;
+        while (off < end) {
+            //1 - meta data stay the same
+            if (this.metaDataLength == 0 || this.metaDataLength < this.metaDataSize) {
+                if (!fill(off > start))
+                    break;
+                b[off] = this.buffer[this.position++];
+                if (this.metaDataLength == 0)
+                    this.metaDataSize = MazeHeader.sizeOf(b[off]);
+                this.metaData[this.metaDataLength++] = b[off++];
+                if (this.metaDataLength == this.metaDataSize) {
+                    this.cellsLeft = cellsCount(this.metaData);
+                    if (this.cellsLeft == 0)
+                        this.metaDataLength = 0;
+                }
+                continue;
+            }
 
-        //check target match the expected
-        int expectedSize = (holder.get(0) + holder.get(1) * 127) * (holder.get(2) + holder.get(3) * 127) + 12;
-        if (target == null || target.length < expectedSize)
-            throw new IllegalArgumentException("the target byte Array given is null or too small");
+            if (this.bitsLeft == 0) {
+                //2 - whole compressed bytes
+                int bytesCount = (int) Math.min(Math.min(this.cellsLeft, end - off) >> 3, this.limit - this.position);
+                for (int i = 0; i < bytesCount; i++, off += 8) {
+                    int value = this.buffer[this.position++];
+                    b[off] = (byte) (value & 1);
+                    b[off + 1] = (byte) (value >> 1 & 1);
+                    b[off + 2] = (byte) (value >> 2 & 1);
+                    b[off + 3] = (byte) (value >> 3 & 1);
+                    b[off + 4] = (byte) (value >> 4 & 1);
+                    b[off + 5] = (byte) (value >> 5 & 1);
+                    b[off + 6] = (byte) (value >> 6 & 1);
+                    b[off + 7] = (byte) (value >> 7 & 1);
+                }
+                this.cellsLeft -= 8L * bytesCount;
+                if (this.cellsLeft == 0) {
+                    this.metaDataLength = 0;
+                    continue;
+                }
+                if (off == end || !fill(off > start))
+                    break;
+                if (this.cellsLeft >= 8 && end - off >= 8)
+                    continue; //the buffer was refilled
+                this.bits = this.buffer[this.position++] & 0xFF;
+                this.bitsLeft = 8;
+            }
 
-        //compress maze
-        for (int i = 12; i < bytes.length; i++) {
-            int temp = bytes[i] > 0 ? bytes[i] : bytes[i] + 256;
-            for (int j = 0; j < 8; j++) {
-                holder.add((byte) (temp % 2));
-                temp /= 2;
+            //3 - a compressed byte that is split between reads, or the last byte of the maze
+            while (this.bitsLeft > 0 && this.cellsLeft > 0 && off < end) {
+                b[off++] = (byte) (this.bits & 1);
+                this.bits >>= 1;
+                this.bitsLeft--;
+                this.cellsLeft--;
+            }
+            if (this.cellsLeft == 0) {
+                this.bitsLeft = 0;
+                this.metaDataLength = 0;
             }
         }
-
-        //prepare the result array
-        for (int i = 0; i < expectedSize; i++)
-            target[i] = holder.get(i);
-
-        return expectedSize;
+        return off == start && len > 0 ? -1 : off - start;
     }
 
     @Override
     public int read() throws IOException {
-        return this.in.read();
+        return read(this.single, 0, 1) == -1 ? -1 : this.single[0] & 0xFF;
     }
 
+    /**
+     * read one whole maze into the target
+     *
+     * @param b the target, at least as big as the maze
+     * @return the total number of bytes read into the buffer, -1 at the end of the stream
+     * @throws IOException              failed to read from the decorated stream or the maze ended in the middle
+     * @throws IllegalArgumentException the target byte Array given is null or too small
+     */
     @Override
     public int read(byte[] b) throws IOException, IllegalArgumentException {
-        return decompress(in.readAllBytes(), b);
+        if (b == null || b.length < MazeHeader.LEGACY_SIZE)
+            throw new IllegalArgumentException("the target byte Array given is null or too small");
+        if (this.metaDataLength != 0) //in the middle of a maze
+            return read(b, 0, b.length);
+
+        if (readFully(b, 0, 1) == 0)
+            return -1;
+        int metaDataSize = MazeHeader.sizeOf(b[0]);
+        if (b.length < metaDataSize)
+            throw new IllegalArgumentException("the target byte Array given is null or too small");
+        int length = readFully(b, 1, metaDataSize - 1) + 1;
+        long expectedSize = cellsCount(this.metaData) + metaDataSize;
+        if (b.length < expectedSize)
+            throw new IllegalArgumentException("the target byte Array given is null or too small");
+        return readFully(b, length, (int) expectedSize - length) + length;
     }
 
     @Override
@@ -75,4 +146,58 @@ public class MyDecompressorInputStream extends InputStream {
         this.in.close();
         super.close();
     }
+
+    /**
+     * @param metaData meta data of a maze
+     * @return number of cells in the maze
+     * @throws IOException the meta data is not a maze header
+     */
+    private static long cellsCount(byte[] metaData) throws IOException {
+        try {
+            return MazeHeader.read(metaData, 0).getCellsCount();
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * @param b   the target
+     * @param off first byte of the target to fill
+     * @param len number of bytes to read
+     * @return number of bytes read, 0 if the stream ended before the first byte
+     * @throws IOException failed to read or the stream ended in the middle
+     */
+    private int readFully(byte[] b, int off, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = read(b, off + read, len - read);
+            if (n == -1) {
+                if (read == 0 && off == 0)
+                    return 0;
+                throw new EOFException("the compressed maze ended in the middle");
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    /**
+     * make sure the buffer has bytes to decompress
+     *
+     * @param hasRead true if some bytes were already read, then only buffered bytes are used and the stream is not blocked on
+     * @return true if the buffer has bytes
+     * @throws IOException failed to read from the decorated stream
+     */
+    private boolean fill(boolean hasRead) throws IOException {
+        if (this.position < this.limit)
+            return true;
+        if (hasRead && this.in.available() <= 0)
+            return false;
+        int n = this.in.read(this.buffer, 0, this.buffer.length);
+        if (n <= 0)
+            return false;
+        this.position = 0;
+        this.limit = n;
+        return true;
+    }
 }
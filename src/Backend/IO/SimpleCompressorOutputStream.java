@@ -1,5 +1,7 @@
 package Backend.IO;
 
+import Backend.algorithms.mazeGenerators.MazeHeader;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -25,7 +27,7 @@ public class SimpleCompressorOutputStream extends OutputStream {
      * count series of 1 or 0 and change it to the counter.
      * 255,0,15,6 - 255+15 times 1 and then 6 times 0.
      *
-     * @param bytes first 12 cells are the meta-data. other are the maze details
+     * @param bytes first cells are the meta-data (MazeHeader). other are the maze details
      * @return compressed array
      */
     private static byte[] compress(byte[] bytes) {
@@ -34,11 +36,12 @@ public class SimpleCompressorOutputStream extends OutputStream {
                 countingType = 1; //1-wall, 0-tile
 
         //insert meta data
-        for (int i = 0; i < 12; i++)
+        int metaDataSize = MazeHeader.sizeOf(bytes[0]);
+        for (int i = 0; i < metaDataSize; i++)
             holder.add(bytes[i]);
 
         //compress maze
-        for (int i = 12; i < bytes.length; i++) {
+        for (int i = metaDataSize; i < bytes.length; i++) {
             if (bytes[i] == countingType)
                 counter++;
             else {
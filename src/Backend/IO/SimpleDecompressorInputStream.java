@@ -1,5 +1,7 @@
 package Backend.IO;
 
+import Backend.algorithms.mazeGenerators.MazeHeader;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -28,22 +30,23 @@ public class SimpleDecompressorInputStream extends InputStream {
      * @param b      input array to decompress
      * @param target in-place changes the values to the decompress form of the input
      * @return the total number of bytes read into the buffer
-     * @throws IllegalArgumentException the target byte Array given in too small
+     * @throws IllegalArgumentException the target byte Array given in too small, or the meta data is not a maze header
      */
     private static int decompress(byte[] b, byte[] target) throws IllegalArgumentException {
         ArrayList<Byte> holder = new ArrayList<>(); //placeholder for our return array
         byte countingType = 1; //1-wall, 0-tile
         //insert meta data
-        for (int i = 0; i < 12; i++)
+        MazeHeader header = MazeHeader.read(b, 0);
+        for (int i = 0; i < header.size(); i++)
             holder.add(b[i]);
 
         //check target match the expected
-        int expectedSize = (holder.get(0) + holder.get(1) * 127) * (holder.get(2) + holder.get(3) * 127) + 12;
+        long expectedSize = header.getCellsCount() + header.size();
         if (target.length < expectedSize)
             throw new IllegalArgumentException("the target byte Array given in too small");
 
         //compress maze
-        for (int i = 12; i < b.length; i++) {
+        for (int i = header.size(); i < b.length; i++) {
             int value = unsignedByteToInt(b[i]);
             for (int j = 0; j < value; j++)
                 holder.add(countingType);
@@ -53,7 +56,7 @@ public class SimpleDecompressorInputStream extends InputStream {
         for (int i = 0; i < expectedSize; i++)
             target[i] = holder.get(i);
 
-        return expectedSize;
+        return (int) expectedSize;
     }
 
     /**
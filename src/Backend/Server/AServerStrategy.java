@@ -3,12 +3,18 @@ package Backend.Server;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class AServerStrategy implements IServerStrategy {
     protected Logger LOG;
     private String loggerName;
+    private ThreadPoolExecutor batchPool; //created on the first batch request
 
     /**
      * @param loggerName logger name to use
@@ -27,6 +33,41 @@ public class AServerStrategy implements IServerStrategy {
         throw new NotImplementedException("ServerStrategy methode not Implemented...");
     }
 
+    /**
+     * pool for the mazes of batch requests, Configurations threadPoolSize daemon threads shared by all the batches of the strategy.
+     * the strategy itself runs on a server pool thread, so the mazes don't go to the server pool -
+     * batches that wait for mazes queued behind them could hold all of its threads.
+     *
+     * @return the batch pool
+     */
+    protected synchronized ThreadPoolExecutor getBatchPool() {
+        if (this.batchPool == null)
+            this.batchPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(Configurations.getInstance().getThreadPoolSize(), task -> {
+                Thread thread = new Thread(task, this.loggerName + "-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        return this.batchPool;
+    }
+
+    /**
+     * a request is a Java serialized object - it is complete when an object can be read from it.
+     * the check reads the whole object, so servers call it off their I/O thread and only when new bytes arrived.
+     *
+     * @param request bytes received from the client so far
+     * @param length  number of bytes received
+     * @return true if the received bytes hold a full serialized object
+     */
+    @Override
+    public boolean isCompleteRequest(byte[] request, int length) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(request, 0, length))) {
+            in.readObject();
+            return true;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            return false;
+        }
+    }
+
     static class NotImplementedException extends RuntimeException {
         public NotImplementedException(String s) {
             super(s);
@@ -8,6 +8,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Properties;
 
 /**
@@ -16,6 +17,9 @@ import java.util.Properties;
 public class Configurations {
     private static final String tempDirectoryPath = System.getProperty("java.io.tmpdir") + "Maze-Project\\";
     private static final String filePath = tempDirectoryPath + "Config.properties";
+    private static final long DEFAULT_SOLUTION_CACHE_SIZE = 32L << 20;
+    private static final String DEFAULT_SERVER_MODE = "blocking";
+    private static final String[] SERVER_MODES = {"blocking", "selector", "virtual"};
     // static variable of Singleton pattern
     private static Configurations single_instance = null;
 
@@ -23,6 +27,8 @@ public class Configurations {
     private int threadPoolSize;
     private String mazeGeneratingAlgorithm;
     private String mazeSearchingAlgorithm;
+    private long solutionCacheSize;
+    private String serverMode;
 
     /**
      * private constructor restricted to this class itself
@@ -39,6 +45,8 @@ public class Configurations {
                 properties.setProperty("threadPoolSize", "" + 3);
                 properties.setProperty("mazeGeneratingAlgorithm", "MyMazeGenerator");
                 properties.setProperty("mazeSearchingAlgorithm", "BestFirstSearch");
+                properties.setProperty("solutionCacheSize", "" + DEFAULT_SOLUTION_CACHE_SIZE);
+                properties.setProperty("serverMode", DEFAULT_SERVER_MODE);
                 properties.store(fileOut, null);
             }
             FileInputStream fileIn = new FileInputStream(filePath);
@@ -46,6 +54,8 @@ public class Configurations {
             this.threadPoolSize = Integer.parseInt(properties.getProperty("threadPoolSize"));
             this.mazeGeneratingAlgorithm = properties.getProperty("mazeGeneratingAlgorithm");
             this.mazeSearchingAlgorithm = properties.getProperty("mazeSearchingAlgorithm");
+            this.solutionCacheSize = Long.parseLong(properties.getProperty("solutionCacheSize", "" + DEFAULT_SOLUTION_CACHE_SIZE));
+            this.serverMode = properties.getProperty("serverMode", DEFAULT_SERVER_MODE);
 
         } catch (IOException ioException) {
             ioException.printStackTrace();
@@ -155,4 +165,58 @@ public class Configurations {
             io.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return size in bytes of the in-memory solution cache
+     */
+    public long getSolutionCacheSize() {
+        return this.solutionCacheSize;
+    }
+
+    /**
+     * set methode of the solutionCacheSize
+     *
+     * @param solutionCacheSize size in bytes of the in-memory solution cache, 0 to disable it
+     * @throws IllegalArgumentException solution cache size cant be < 0
+     */
+    public void setSolutionCacheSize(long solutionCacheSize) throws IllegalArgumentException {
+        if (solutionCacheSize < 0)
+            throw new IllegalArgumentException("solution cache size cant be < 0");
+        try {
+            FileOutputStream fileOut = new FileOutputStream(filePath);
+            properties.setProperty("solutionCacheSize", "" + solutionCacheSize);
+            properties.store(fileOut, null);
+            this.solutionCacheSize = solutionCacheSize;
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+
+    /**
+     * @return server execution mode - "blocking" (pool thread per connection), "selector" (non-blocking I/O)
+     * or "virtual" (virtual thread per connection, the strategy work on the pool).
+     * virtual threads need a Java 21 runtime, on older runtimes the "virtual" mode runs as "selector".
+     */
+    public String getServerMode() {
+        return this.serverMode;
+    }
+
+    /**
+     * set methode of the serverMode
+     *
+     * @param serverMode "blocking", "selector" or "virtual"
+     * @throws IllegalArgumentException unknown server mode
+     */
+    public void setServerMode(String serverMode) throws IllegalArgumentException {
+        if (!Arrays.asList(SERVER_MODES).contains(serverMode))
+            throw new IllegalArgumentException("unknown server mode " + serverMode);
+        try {
+            FileOutputStream fileOut = new FileOutputStream(filePath);
+            properties.setProperty("serverMode", serverMode);
+            properties.store(fileOut, null);
+            this.serverMode = serverMode;
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+    }
+}
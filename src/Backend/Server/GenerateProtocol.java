@@ -0,0 +1,169 @@
+package Backend.Server;
+
+import java.io.*;
+
+/**
+ * batch protocol of the maze generating server - many mazes in one request.
+ * request:  [magic - 4 bytes][version - 1 byte][flags - 1 byte][count - 4 bytes]
+ * then for every maze [rows - 4 bytes][columns - 4 bytes] and [seed - 8 bytes] when the seeds flag is set.
+ * response: a record for every maze in the order they are ready: [index - 4 bytes][length - 4 bytes][maze compressed by MyCompressorOutputStream],
+ * a length of -1 marks a maze that failed to generate. the index -1 ends the response.
+ * the magic never starts with 0xAC, so the server can tell it from a Java serialization stream (0xACED).
+ */
+public class GenerateProtocol {
+    public static final int MAGIC = 0x4D5A4742; //"MZGB"
+    public static final byte VERSION = 1;
+    public static final byte FLAG_SEEDS = 1;
+    public static final int MAX_COUNT = 1 << 20;
+    private static final int HEADER_SIZE = 10;
+
+    private GenerateProtocol() {
+    }
+
+    /**
+     * @param request bytes received from the client
+     * @param length  number of bytes received
+     * @return true if the bytes start with the batch request magic
+     */
+    public static boolean isBatchRequest(byte[] request, int length) {
+        return length >= 4 && readInt(request, 0) == MAGIC;
+    }
+
+    /**
+     * @param request bytes received from the client so far
+     * @param length  number of bytes received
+     * @return true if a batch request was fully received
+     */
+    public static boolean isCompleteRequest(byte[] request, int length) {
+        if (length < HEADER_SIZE)
+            return false;
+        int count = readInt(request, 6);
+        if (count < 0 || count > MAX_COUNT) //a bad count is complete - it fails when read
+            return true;
+        return length >= HEADER_SIZE + (long) count * entrySize(request[5]);
+    }
+
+    /**
+     * @param out   stream to the server
+     * @param sizes rows and columns of every maze
+     * @param seeds seed of every maze, null for random mazes
+     * @throws IOException              failed to write the request
+     * @throws IllegalArgumentException the seeds do not match the sizes, or too many mazes
+     */
+    public static void writeRequest(OutputStream out, int[][] sizes, long[] seeds) throws IOException, IllegalArgumentException {
+        if (seeds != null && seeds.length != sizes.length)
+            throw new IllegalArgumentException("a seed is needed for every maze");
+        if (sizes.length > MAX_COUNT)
+            throw new IllegalArgumentException("too many mazes in one request");
+        DataOutputStream toServer = new DataOutputStream(new BufferedOutputStream(out));
+        toServer.writeInt(MAGIC);
+        toServer.writeByte(VERSION);
+        toServer.writeByte(seeds == null ? 0 : FLAG_SEEDS);
+        toServer.writeInt(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            toServer.writeInt(sizes[i][0]);
+            toServer.writeInt(sizes[i][1]);
+            if (seeds != null)
+                toServer.writeLong(seeds[i]);
+        }
+        toServer.flush();
+    }
+
+    /**
+     * @param in stream from the client
+     * @return the batch request
+     * @throws IOException bad request or failed to read it
+     */
+    public static BatchRequest readRequest(InputStream in) throws IOException {
+        DataInputStream fromClient = new DataInputStream(in);
+        if (fromClient.readInt() != MAGIC)
+            throw new IOException("not a batch generate request");
+        byte version = fromClient.readByte();
+        if (version != VERSION)
+            throw new IOException("unsupported protocol version " + version);
+        byte flags = fromClient.readByte();
+        int count = fromClient.readInt();
+        if (count < 0 || count > MAX_COUNT)
+            throw new IOException("bad maze count " + count);
+        int[][] sizes = new int[count][2];
+        long[] seeds = (flags & FLAG_SEEDS) != 0 ? new long[count] : null;
+        for (int i = 0; i < count; i++) {
+            sizes[i][0] = fromClient.readInt();
+            sizes[i][1] = fromClient.readInt();
+            if (seeds != null)
+                seeds[i] = fromClient.readLong();
+        }
+        return new BatchRequest(sizes, seeds);
+    }
+
+    /**
+     * write one record of the response
+     *
+     * @param out            stream to the client
+     * @param index          index of the maze in the request
+     * @param compressedMaze the compressed maze, null if it failed to generate
+     * @throws IOException failed to write the record
+     */
+    public static void writeMaze(DataOutputStream out, int index, byte[] compressedMaze) throws IOException {
+        out.writeInt(index);
+        if (compressedMaze == null)
+            out.writeInt(-1);
+        else {
+            out.writeInt(compressedMaze.length);
+            out.write(compressedMaze);
+        }
+    }
+
+    /**
+     * write the end of the response
+     *
+     * @param out stream to the client
+     * @throws IOException failed to write
+     */
+    public static void writeEnd(DataOutputStream out) throws IOException {
+        out.writeInt(-1);
+        out.flush();
+    }
+
+    private static int entrySize(byte flags) {
+        return (flags & FLAG_SEEDS) != 0 ? 16 : 8;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * mazes requested in one batch
+     */
+    public static class BatchRequest {
+        private final int[][] sizes;
+        private final long[] seeds;
+
+        private BatchRequest(int[][] sizes, long[] seeds) {
+            this.sizes = sizes;
+            this.seeds = seeds;
+        }
+
+        /**
+         * @return number of mazes
+         */
+        public int getCount() {
+            return this.sizes.length;
+        }
+
+        /**
+         * @return rows and columns of every maze
+         */
+        public int[][] getSizes() {
+            return this.sizes;
+        }
+
+        /**
+         * @return seed of every maze, null for random mazes
+         */
+        public long[] getSeeds() {
+            return this.seeds;
+        }
+    }
+}
@@ -12,5 +12,14 @@ public interface IServerStrategy {
      */
     void ServerStrategy(InputStream inFromClient, OutputStream outToClient);
 
+    /**
+     * used by servers that read the request before running the strategy (non-blocking server)
+     *
+     * @param request bytes received from the client so far
+     * @param length  number of bytes received
+     * @return true if the received bytes hold a full request
+     */
+    boolean isCompleteRequest(byte[] request, int length);
+
     String getLoggerName();
 }
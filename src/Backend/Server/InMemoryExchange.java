@@ -0,0 +1,55 @@
+package Backend.Server;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * runs a strategy over a request that was read into memory, for servers that separate the client I/O from the strategy work.
+ * clients that use Java serialization wait for the stream header of the server before they send their request,
+ * so such servers send the header as soon as the client header arrives and cut it from the start of the strategy response.
+ * the whole request is read before the strategy starts and the whole response is sent after it ends,
+ * so batch requests are not streamed over such servers.
+ */
+final class InMemoryExchange {
+    static final byte[] STREAM_HEADER = {(byte) 0xAC, (byte) 0xED, 0x00, 0x05}; //Java serialization stream header
+    static final int MAX_REQUEST_LENGTH = KeepAliveProtocol.MAX_FRAME_LENGTH + 4; //a full frame with its length, bigger requests are dropped
+
+    private InMemoryExchange() {
+    }
+
+    /**
+     * @param request bytes received from the client
+     * @param length  number of bytes received
+     * @return true if the request starts with a Java serialization stream header
+     */
+    static boolean startsWithStreamHeader(byte[] request, int length) {
+        return length >= STREAM_HEADER.length && Arrays.equals(request, 0, STREAM_HEADER.length, STREAM_HEADER, 0, STREAM_HEADER.length);
+    }
+
+    /**
+     * run the strategy on a complete request
+     *
+     * @param strategy   the server strategy
+     * @param request    bytes received from the client
+     * @param length     number of bytes received
+     * @param headerSent true if the stream header was already sent to the client
+     * @param LOG        server logger
+     * @return the response to send to the client
+     */
+    static byte[] respond(IServerStrategy strategy, byte[] request, int length, boolean headerSent, Logger LOG) {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try {
+            strategy.ServerStrategy(new ByteArrayInputStream(request, 0, length), response);
+        } catch (RuntimeException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
+        }
+        byte[] bytes = response.toByteArray();
+        if (headerSent && startsWithStreamHeader(bytes, bytes.length))
+            return Arrays.copyOfRange(bytes, STREAM_HEADER.length, bytes.length);
+        return bytes;
+    }
+}
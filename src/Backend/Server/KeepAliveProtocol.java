@@ -0,0 +1,104 @@
+package Backend.Server;
+
+import java.io.*;
+
+/**
+ * framed keep-alive protocol - one connection carries many requests.
+ * the client opens the connection with the preface, after it every request is a frame: [length - 4 bytes][payload].
+ * the server answers every request with a frame in the same order, so the client may send the next requests
+ * before the answers arrive (pipelining). a zero-length frame is a ping and is answered by a zero-length frame.
+ * the payloads are the same bytes the strategies exchange without the protocol.
+ */
+public class KeepAliveProtocol {
+    public static final int PREFACE = 0x4D5A4B41; //"MZKA"
+    public static final int MAX_FRAME_LENGTH = 64 << 20;
+
+    private KeepAliveProtocol() {
+    }
+
+    /**
+     * @param bytes  bytes received from the client
+     * @param length number of bytes received
+     * @return true if the bytes start with the preface
+     */
+    public static boolean isPreface(byte[] bytes, int length) {
+        return length >= 4 && readInt(bytes, 0) == PREFACE;
+    }
+
+    /**
+     * check if a stream starts with the preface, without consuming it
+     *
+     * @param in stream that supports mark
+     * @return true if the stream starts with the preface
+     * @throws IOException failed to read from the stream
+     */
+    public static boolean isPreface(BufferedInputStream in) throws IOException {
+        in.mark(4);
+        byte[] start = in.readNBytes(4);
+        in.reset();
+        return isPreface(start, start.length);
+    }
+
+    /**
+     * @param in stream to read from
+     * @return payload of the next frame, null if the stream ended before a frame
+     * @throws IOException bad frame length or failed to read the frame
+     */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0)
+            return null;
+        int length = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+        checkLength(length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * write a frame, without flushing
+     *
+     * @param out     stream to write to
+     * @param payload the frame payload
+     * @throws IOException failed to write the frame
+     */
+    public static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    /**
+     * @param bytes  array that holds a frame
+     * @param offset where the frame starts
+     * @return the payload length of the frame
+     * @throws IOException bad frame length
+     */
+    static int frameLength(byte[] bytes, int offset) throws IOException {
+        int length = readInt(bytes, offset);
+        checkLength(length);
+        return length;
+    }
+
+    /**
+     * @param payload frame payload
+     * @return the frame as one array
+     */
+    static byte[] toFrame(byte[] payload) {
+        byte[] frame = new byte[4 + payload.length];
+        frame[0] = (byte) (payload.length >>> 24);
+        frame[1] = (byte) (payload.length >>> 16);
+        frame[2] = (byte) (payload.length >>> 8);
+        frame[3] = (byte) payload.length;
+        System.arraycopy(payload, 0, frame, 4, payload.length);
+        return frame;
+    }
+
+    private static void checkLength(int length) throws IOException {
+        if (length < 0 || length > MAX_FRAME_LENGTH)
+            throw new IOException("bad frame length " + length);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
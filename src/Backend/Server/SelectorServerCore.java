@@ -0,0 +1,335 @@
+package Backend.Server;
+
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * non-blocking server core - one selector thread accepts clients, reads their requests and writes the responses.
+ * when a request is complete (IServerStrategy.isCompleteRequest or the client shut down its output)
+ * the strategy runs on the compute pool over in-memory streams, so slow clients never hold a compute thread.
+ * isCompleteRequest may have to deserialize the whole request, so it runs on the compute pool too.
+ * a request that is not complete after InMemoryExchange.MAX_REQUEST_LENGTH bytes is dropped with its connection.
+ * the Java serialization stream header is sent early, see InMemoryExchange.
+ * connections that start with the KeepAliveProtocol preface stay open, their frames are handled one after the other.
+ */
+class SelectorServerCore {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final int port;
+    private final int listeningIntervalMS;
+    private final IServerStrategy strategy;
+    private final ExecutorService computePool;
+    private final Logger LOG;
+    private final Queue<Connection> responses; //connections that their response is ready, filled by the compute pool
+    private final Queue<Connection> probed; //connections that their request was checked, filled by the compute pool
+    private Selector selector;
+
+    /**
+     * constructor
+     *
+     * @param port                server port
+     * @param listeningIntervalMS interval of checking if the server should stop
+     * @param strategy            the server strategy
+     * @param computePool         pool to run the strategy on
+     * @param LOG                 server logger
+     */
+    SelectorServerCore(int port, int listeningIntervalMS, IServerStrategy strategy, ExecutorService computePool, Logger LOG) {
+        this.port = port;
+        this.listeningIntervalMS = listeningIntervalMS;
+        this.strategy = strategy;
+        this.computePool = computePool;
+        this.LOG = LOG;
+        this.responses = new ConcurrentLinkedQueue<>();
+        this.probed = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * the selector routine, returns when running says false
+     *
+     * @param running server run status
+     * @throws IOException failed to open the server socket or the selector
+     */
+    void run(BooleanSupplier running) throws IOException {
+        try (Selector selector = Selector.open(); ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            this.selector = selector;
+            serverChannel.bind(new InetSocketAddress(this.port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            LOG.info("Starting non-blocking server at port = " + this.port);
+
+            while (running.getAsBoolean()) {
+                selector.select(this.listeningIntervalMS);
+                Connection ready;
+                while ((ready = this.responses.poll()) != null) //1 - responses and checks that the compute pool finished
+                    responded(ready);
+                while ((ready = this.probed.poll()) != null)
+                    probed(ready);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) { //2 - I/O events
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid())
+                            continue;
+                        if (key.isAcceptable())
+                            accept(serverChannel);
+                        else if (key.isReadable())
+                            read(key);
+                        else if (key.isWritable())
+                            write(key);
+                    } catch (IOException | CancelledKeyException e) {
+                        LOG.info("Lost connection with client " + key.channel().toString());
+                        close(key);
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys())
+                key.channel().close();
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel client = serverChannel.accept();
+        if (client == null)
+            return;
+        client.configureBlocking(false);
+        SelectionKey key = client.register(this.selector, SelectionKey.OP_READ);
+        key.attach(new Connection(key));
+        LOG.info("Client accepted: " + client.toString());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer buffer = connection.readBuffer();
+        int count = ((SocketChannel) key.channel()).read(buffer);
+        if (count > 0)
+            connection.length = buffer.position();
+        else if (count < 0)
+            connection.closing = true;
+        if (!connection.framed && connection.consumed == 0 && KeepAliveProtocol.isPreface(connection.request, connection.length)) {
+            connection.framed = true;
+            connection.consumed = 4;
+        }
+        if (connection.framed)
+            dispatchFrames(connection);
+        else {
+            if (!connection.headerSent && InMemoryExchange.startsWithStreamHeader(connection.request, connection.length)) {
+                connection.headerSent = true;
+                connection.output.add(ByteBuffer.wrap(InMemoryExchange.STREAM_HEADER));
+            }
+            checkRequest(connection);
+        }
+        updateInterest(connection);
+    }
+
+    /**
+     * start the request of a connection without the keep-alive preface when it is complete.
+     * one check of a connection runs at a time, and a new one starts only if more bytes arrived since the last one.
+     *
+     * @param connection connection with one request
+     */
+    private void checkRequest(Connection connection) {
+        if (connection.done || connection.probing || connection.length == 0)
+            return;
+        if (connection.closing) { //the client shut down its output - the request is what arrived
+            connection.done = true; //one request on this connection
+            compute(connection, connection.request, connection.length, connection.headerSent);
+            return;
+        }
+        if (connection.length == connection.probedLength)
+            return;
+        byte[] request = connection.request;
+        int length = connection.length;
+        connection.probing = true;
+        connection.probedLength = length;
+        try {
+            this.computePool.execute(() -> {
+                connection.complete = this.strategy.isCompleteRequest(request, length);
+                this.probed.add(connection);
+                this.selector.wakeup();
+            });
+        } catch (RejectedExecutionException e) { //the server is stopping
+            close(connection.key);
+        }
+    }
+
+    /**
+     * handle a finished check of a request, called on the selector thread
+     *
+     * @param connection connection with a checked request
+     */
+    private void probed(Connection connection) {
+        connection.probing = false;
+        if (!connection.key.isValid())
+            return;
+        if (connection.complete) {
+            connection.done = true; //one request on this connection
+            compute(connection, connection.request, connection.length, connection.headerSent);
+        } else {
+            checkRequest(connection);
+            if (!connection.done && !connection.probing && connection.length == InMemoryExchange.MAX_REQUEST_LENGTH) {
+                LOG.info("Request is too big, closing client " + connection.key.channel().toString());
+                close(connection.key);
+                return;
+            }
+        }
+        try {
+            updateInterest(connection);
+        } catch (CancelledKeyException e) {
+            close(connection.key);
+        }
+    }
+
+    /**
+     * start the next complete frames of a keep-alive connection, pings are answered right away.
+     * only one frame of a connection is computed at a time, so the answers keep the order of the requests.
+     *
+     * @param connection keep-alive connection
+     * @throws IOException bad frame length
+     */
+    private void dispatchFrames(Connection connection) throws IOException {
+        while (!connection.computing && connection.length - connection.consumed >= 4) {
+            int frameLength = KeepAliveProtocol.frameLength(connection.request, connection.consumed);
+            if (connection.length - connection.consumed - 4 < frameLength)
+                break;
+            int from = connection.consumed + 4;
+            connection.consumed = from + frameLength;
+            if (frameLength == 0)
+                connection.output.add(ByteBuffer.wrap(KeepAliveProtocol.toFrame(new byte[0])));
+            else
+                compute(connection, Arrays.copyOfRange(connection.request, from, from + frameLength), frameLength, false);
+        }
+        if (connection.consumed == connection.length) //everything was handled, reuse the buffer from its start
+            connection.consumed = connection.length = 0;
+        else if (connection.consumed > 0 && (connection.consumed > connection.request.length / 2
+                || connection.length == connection.request.length)) { //drop the handled part
+            System.arraycopy(connection.request, connection.consumed, connection.request, 0, connection.length - connection.consumed);
+            connection.length -= connection.consumed;
+            connection.consumed = 0;
+        }
+    }
+
+    /**
+     * run the strategy on the compute pool, the result is handed back to the selector thread
+     *
+     * @param connection connection of the request
+     * @param request    the request bytes
+     * @param length     number of bytes in the request
+     * @param headerSent true if the stream header was already sent to the client
+     */
+    private void compute(Connection connection, byte[] request, int length, boolean headerSent) {
+        connection.computing = true;
+        try {
+            this.computePool.execute(() -> {
+                byte[] response = InMemoryExchange.respond(this.strategy, request, length, headerSent, LOG);
+                connection.result = connection.framed ? KeepAliveProtocol.toFrame(response) : response;
+                this.responses.add(connection);
+                this.selector.wakeup();
+            });
+        } catch (RejectedExecutionException e) { //the server is stopping
+            close(connection.key);
+        }
+    }
+
+    /**
+     * queue a response that the compute pool finished, called on the selector thread
+     *
+     * @param connection connection with a result
+     */
+    private void responded(Connection connection) {
+        connection.output.add(ByteBuffer.wrap(connection.result));
+        connection.result = null;
+        connection.computing = false;
+        try {
+            if (connection.framed)
+                dispatchFrames(connection);
+            updateInterest(connection);
+        } catch (IOException | CancelledKeyException e) {
+            close(connection.key);
+        }
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        while (!connection.output.isEmpty()) {
+            ByteBuffer output = connection.output.peek();
+            channel.write(output);
+            if (output.hasRemaining())
+                return;
+            connection.output.poll();
+        }
+        updateInterest(connection);
+    }
+
+    /**
+     * set the events the selector waits for on a connection, close it when it has nothing left to do
+     *
+     * @param connection connection to update
+     */
+    private void updateInterest(Connection connection) {
+        if (!connection.key.isValid())
+            return;
+        boolean reading = !connection.closing && (connection.framed || !connection.done)
+                && connection.length < InMemoryExchange.MAX_REQUEST_LENGTH; //a full buffer is read again when a frame is handled
+        boolean writing = !connection.output.isEmpty();
+        if (!reading && !writing && !connection.computing && !connection.probing) {
+            LOG.info("Done handling client: " + connection.key.channel().toString());
+            close(connection.key);
+            return;
+        }
+        connection.key.interestOps((reading ? SelectionKey.OP_READ : 0) | (writing ? SelectionKey.OP_WRITE : 0));
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOG.error(e.toString());
+        }
+    }
+
+    /**
+     * state of one client connection, used only by the selector thread except for result
+     */
+    private static class Connection {
+        private final SelectionKey key;
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>(); //bytes waiting to be sent
+        private byte[] request = new byte[READ_BUFFER_SIZE];
+        private int length, consumed; //received bytes, bytes of frames that were handled
+        private int probedLength; //received bytes when the request was last checked
+        private boolean framed, headerSent, computing, probing, done, closing;
+        private volatile byte[] result; //response of the compute pool
+        private volatile boolean complete; //result of the last check of the request
+
+        private Connection(SelectionKey key) {
+            this.key = key;
+        }
+
+        /**
+         * @return buffer over the free part of the request array, the array grows when it is full up to MAX_REQUEST_LENGTH
+         */
+        private ByteBuffer readBuffer() {
+            if (this.length == this.request.length && this.length < InMemoryExchange.MAX_REQUEST_LENGTH)
+                this.request = Arrays.copyOf(this.request, Math.min(this.request.length * 2, InMemoryExchange.MAX_REQUEST_LENGTH));
+            return ByteBuffer.wrap(this.request).position(this.length);
+        }
+    }
+}
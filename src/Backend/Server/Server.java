@@ -3,12 +3,16 @@ package Backend.Server;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.IOException;
+import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Server Class - using strategy pattern
@@ -17,7 +21,11 @@ public class Server {
     private final int port; //Server Port
     private final int listeningIntervalMS; //Server Listening Interval before time-out
     private final IServerStrategy strategy; //Server strategy
-    private final ExecutorService threadPool; // Thread pool
+    private static final int KEEP_ALIVE_TIMEOUT_MS = 60 * 1000; //idle keep-alive connections are closed after it
+    private static final int BLOCKING_KEEP_ALIVE_TIMEOUT_MS = 5 * 1000; //same, when the connection holds a pool thread
+    private static final int KEEP_ALIVE_POLL_MS = 100; //check for waiting connections while a blocking keep-alive connection is idle
+    private final ThreadPoolExecutor threadPool; // Thread pool
+    private ExecutorService connectionThreads; // thread per connection, only in virtual mode
     private volatile boolean run = false; //Server run status
     private final Logger LOG;
 
@@ -32,7 +40,7 @@ public class Server {
         this.port = port;
         this.listeningIntervalMS = listeningIntervalMS;
         this.strategy = strategy;
-        this.threadPool = Executors.newFixedThreadPool(Configurations.getInstance().getThreadPoolSize());
+        this.threadPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(Configurations.getInstance().getThreadPoolSize());
         this.LOG = LogManager.getLogger(strategy.getLoggerName());
     }
 
@@ -56,6 +64,18 @@ public class Server {
      * the server routine
      */
     private void run() {
+        String mode = Configurations.getInstance().getServerMode();
+        if (mode.equals("virtual")) {
+            this.connectionThreads = newConnectionThreads();
+            if (this.connectionThreads == null) { //platform thread per connection is not bounded - keep the threads fixed instead
+                LOG.info("Virtual threads are not supported, using the non-blocking server");
+                mode = "selector";
+            }
+        }
+        if (mode.equals("selector")) {
+            this.runSelector();
+            return;
+        }
         try {
             ServerSocket serverSocket = new ServerSocket(this.port);
             serverSocket.setSoTimeout(this.listeningIntervalMS);
@@ -66,8 +86,10 @@ public class Server {
                 try {
                     Socket clientSocket = serverSocket.accept();
                     LOG.info("Client accepted: " + clientSocket.toString());
-                    // Insert the new task into the thread pool
-                    this.threadPool.execute(() -> handleClient(clientSocket));
+                    if (this.connectionThreads != null) // the connection gets its own thread, the strategy runs on the pool
+                        this.connectionThreads.execute(() -> handleClientInMemory(clientSocket));
+                    else // Insert the new task into the thread pool
+                        this.threadPool.execute(() -> handleClient(clientSocket));
                 } catch (SocketTimeoutException e) {
 //                    System.out.println("Socket timeout");
                 }
@@ -80,6 +102,20 @@ public class Server {
         }
     }
 
+    /**
+     * the non-blocking server routine - I/O on one selector thread, the strategy on the thread pool
+     */
+    private void runSelector() {
+        try {
+            this.run = true;
+            new SelectorServerCore(this.port, this.listeningIntervalMS, this.strategy, this.threadPool, LOG).run(() -> this.run);
+        } catch (IOException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
+        }
+        this.run = false;
+    }
+
     /**
      * Stopping the running of the server.
      */
@@ -87,6 +123,8 @@ public class Server {
         LOG.info("Stopping server...");
         this.run = false;
         this.threadPool.shutdownNow();
+        if (this.connectionThreads != null)
+            this.connectionThreads.shutdownNow();
     }
 
     /**
@@ -96,7 +134,12 @@ public class Server {
      */
     private void handleClient(Socket clientSocket) {
         try {
-            this.strategy.ServerStrategy(clientSocket.getInputStream(), clientSocket.getOutputStream());
+            BufferedInputStream inFromClient = new BufferedInputStream(clientSocket.getInputStream());
+            if (KeepAliveProtocol.isPreface(inFromClient)) {
+                inFromClient.skipNBytes(4);
+                this.serveFrames(clientSocket, inFromClient, clientSocket.getOutputStream(), false);
+            } else
+                this.strategy.ServerStrategy(inFromClient, clientSocket.getOutputStream());
             clientSocket.close();
         } catch (IOException e) {
             this.run = false;
@@ -106,5 +149,136 @@ public class Server {
         LOG.info("Done handling client: " + clientSocket.toString());
     }
 
+    /**
+     * the client handle routine of the virtual mode.
+     * the request is read on the connection thread, only the strategy work takes a thread pool thread.
+     *
+     * @param clientSocket communication socket with the client.
+     */
+    private void handleClientInMemory(Socket clientSocket) {
+        try (clientSocket) {
+            InputStream inFromClient = clientSocket.getInputStream();
+            OutputStream outToClient = clientSocket.getOutputStream();
+            byte[] request = new byte[16 * 1024];
+            int length = 0, count;
+            boolean headerSent = false;
+            while (true) { //read until the request is complete or the client shut down its output
+                if (length == InMemoryExchange.MAX_REQUEST_LENGTH) {
+                    LOG.info("Request is too big, closing client " + clientSocket.toString());
+                    return;
+                }
+                if (length == request.length)
+                    request = Arrays.copyOf(request, Math.min(request.length * 2, InMemoryExchange.MAX_REQUEST_LENGTH));
+                if ((count = inFromClient.read(request, length, request.length - length)) < 0)
+                    break;
+                length += count;
+                if (KeepAliveProtocol.isPreface(request, length)) {
+                    InputStream rest = new ByteArrayInputStream(request, 4, length - 4);
+                    this.serveFrames(clientSocket, new BufferedInputStream(new SequenceInputStream(rest, inFromClient)), outToClient, true);
+                    return;
+                }
+                if (!headerSent && InMemoryExchange.startsWithStreamHeader(request, length)) {
+                    outToClient.write(InMemoryExchange.STREAM_HEADER);
+                    outToClient.flush();
+                    headerSent = true;
+                }
+                if (inFromClient.available() == 0 && this.strategy.isCompleteRequest(request, length)) //check only when the client paused
+                    break;
+            }
+            byte[] fullRequest = request;
+            int fullLength = length;
+            boolean sentHeader = headerSent;
+            outToClient.write(this.threadPool.submit(() -> InMemoryExchange.respond(this.strategy, fullRequest, fullLength, sentHeader, LOG)).get());
+            outToClient.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException | RejectedExecutionException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
+        }
+        LOG.info("Done handling client: " + clientSocket.toString());
+    }
+
+    /**
+     * serve the frames of a keep-alive connection until the client closes it, stays idle too long or the server stops.
+     * the answers are flushed when no more pipelined requests are waiting.
+     * without offload the connection holds a pool thread, so it is closed sooner when idle, see waitForFrame.
+     *
+     * @param clientSocket communication socket with the client
+     * @param inFromClient input-stream from the client, after the preface
+     * @param outToClient  output-stream to the client
+     * @param offload      true to run the strategy on the thread pool, false to run it on the calling thread
+     */
+    private void serveFrames(Socket clientSocket, BufferedInputStream inFromClient, OutputStream outToClient, boolean offload) {
+        try {
+            clientSocket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
+            DataInputStream fromClient = new DataInputStream(inFromClient);
+            DataOutputStream toClient = new DataOutputStream(new BufferedOutputStream(outToClient));
+            byte[] request;
+            while (this.run && (offload || this.waitForFrame(clientSocket, inFromClient))
+                    && (request = KeepAliveProtocol.readFrame(fromClient)) != null) {
+                byte[] fullRequest = request, response = request; //a ping is answered with an empty frame
+                if (request.length > 0)
+                    response = offload ? this.threadPool.submit(() -> InMemoryExchange.respond(this.strategy, fullRequest, fullRequest.length, false, LOG)).get()
+                            : InMemoryExchange.respond(this.strategy, request, request.length, false, LOG);
+                KeepAliveProtocol.writeFrame(toClient, response);
+                if (fromClient.available() == 0)
+                    toClient.flush();
+            }
+            toClient.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SocketTimeoutException e) {
+            LOG.info("Closing idle connection: " + clientSocket.toString());
+        } catch (IOException | ExecutionException | RejectedExecutionException e) {
+            LOG.info("Lost connection with client " + clientSocket.toString() + ": " + e);
+        }
+    }
+
+    /**
+     * wait for the next frame of a keep-alive connection that holds a pool thread.
+     * the thread is given up (the connection is closed) as soon as other connections wait for a pool thread,
+     * or after BLOCKING_KEEP_ALIVE_TIMEOUT_MS without a frame. pooled clients check idle connections before they reuse them.
+     *
+     * @param clientSocket communication socket with the client
+     * @param inFromClient input-stream from the client, at the start of a frame
+     * @return true if the next frame started to arrive, false if the connection should be closed
+     * @throws IOException failed to read from the client
+     */
+    private boolean waitForFrame(Socket clientSocket, BufferedInputStream inFromClient) throws IOException {
+        long idleSince = System.currentTimeMillis();
+        clientSocket.setSoTimeout(KEEP_ALIVE_POLL_MS);
+        try {
+            while (true) {
+                try {
+                    inFromClient.mark(1);
+                    if (inFromClient.read() < 0)
+                        return false;
+                    inFromClient.reset();
+                    return true;
+                } catch (SocketTimeoutException e) {
+                    if (!this.run || !this.threadPool.getQueue().isEmpty()
+                            || System.currentTimeMillis() - idleSince >= BLOCKING_KEEP_ALIVE_TIMEOUT_MS) {
+                        LOG.info("Closing idle connection: " + clientSocket.toString());
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            clientSocket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
+        }
+    }
 
+    /**
+     * the project targets Java 15, so the executor is looked up by reflection
+     *
+     * @return executor that starts a virtual thread for every task (Java 21 and later), null on older runtimes
+     */
+    private static ExecutorService newConnectionThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
 }
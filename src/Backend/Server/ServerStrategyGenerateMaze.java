@@ -1,17 +1,18 @@
 package Backend.Server;
 
-import Backend.IO.MyCompressorOutputStream;
 import Backend.algorithms.mazeGenerators.IMazeGenerator;
 import Backend.algorithms.mazeGenerators.Maze;
 
 import java.io.*;
-import java.lang.reflect.InvocationTargetException;
 import java.net.SocketException;
+import java.util.Random;
+import java.util.concurrent.*;
 
 /**
  * generating maze server strategy
  */
 public class ServerStrategyGenerateMaze extends AServerStrategy {
+    private static final int BATCH_IN_FLIGHT_PER_THREAD = 4; //mazes of a batch that are generated or waiting to be sent, per pool thread
 
     public ServerStrategyGenerateMaze() {
         super("generate");
@@ -20,28 +21,25 @@ public class ServerStrategyGenerateMaze extends AServerStrategy {
     @Override
     public void ServerStrategy(InputStream inFromClient, OutputStream outToClient) {
         try {
-            ObjectInputStream dimensionInputStream = new ObjectInputStream(inFromClient);
+            BufferedInputStream fromClient = new BufferedInputStream(inFromClient);
+            fromClient.mark(4);
+            byte[] start = fromClient.readNBytes(4);
+            fromClient.reset();
+            if (GenerateProtocol.isBatchRequest(start, start.length)) {
+                generateBatch(GenerateProtocol.readRequest(fromClient), outToClient);
+                return;
+            }
+            ObjectInputStream dimensionInputStream = new ObjectInputStream(fromClient);
             ObjectOutputStream toClient = new ObjectOutputStream(outToClient);
             int[] mazeDimensions = (int[]) dimensionInputStream.readObject(); //get requested maze dimensions
-            //create IMazeGenerator class using the name that in configuration file to generate the maze with.
-            Class<?> mazeGeneratorClass = Class.forName("Backend.algorithms.mazeGenerators." + Configurations.getInstance().getMazeGeneratingAlgorithm());
-            IMazeGenerator mazeGenerator = (IMazeGenerator) mazeGeneratorClass.getDeclaredConstructor().newInstance();
-            Maze maze = mazeGenerator.generate(mazeDimensions[0], mazeDimensions[1]);
-
-            ByteArrayOutputStream ba = new ByteArrayOutputStream();
-            MyCompressorOutputStream compressorOutputStream = new MyCompressorOutputStream(ba);
-            compressorOutputStream.write(maze.toByteArray());
-            compressorOutputStream.flush();
-            compressorOutputStream.close();
-
-            toClient.writeObject(ba.toByteArray());
+            Maze maze = newMazeGenerator().generate(mazeDimensions[0], mazeDimensions[1]);
+
+            toClient.writeObject(SolveProtocol.compress(maze));
             toClient.flush();
             toClient.close();
-            ba.close();
         } catch (SocketException e) {
             LOG.info("Lost connection with client " + outToClient.toString());
-        } catch (IOException | InvocationTargetException | ClassNotFoundException | NoSuchMethodException
-                | InstantiationException | IllegalAccessException e) {
+        } catch (IOException | ReflectiveOperationException e) {
             LOG.error(e.toString());
             e.printStackTrace();
         } catch (Exception e) {
@@ -50,4 +48,75 @@ public class ServerStrategyGenerateMaze extends AServerStrategy {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public boolean isCompleteRequest(byte[] request, int length) {
+        if (GenerateProtocol.isBatchRequest(request, length))
+            return GenerateProtocol.isCompleteRequest(request, length);
+        return super.isCompleteRequest(request, length);
+    }
+
+    /**
+     * generate the mazes of a batch request in parallel on the batch pool, every maze is sent as soon as it is ready.
+     * only a few mazes per pool thread are in flight, so a big batch does not fill the memory.
+     * the mazes reach the client one by one only in the blocking server mode - the other modes and keep-alive frames
+     * keep the whole response in memory (InMemoryExchange) and send it when the batch is done.
+     *
+     * @param request     the batch request
+     * @param outToClient output-stream to the client
+     * @throws IOException                  failed to send to the client
+     * @throws ReflectiveOperationException failed to create the configured generator
+     */
+    private void generateBatch(GenerateProtocol.BatchRequest request, OutputStream outToClient) throws IOException, ReflectiveOperationException {
+        IMazeGenerator mazeGenerator = newMazeGenerator();
+        ThreadPoolExecutor pool = getBatchPool();
+        CompletionService<byte[]> completion = new ExecutorCompletionService<>(pool);
+        DataOutputStream toClient = new DataOutputStream(new BufferedOutputStream(outToClient));
+        int count = request.getCount(), submitted = 0, inFlight = 0;
+        int maxInFlight = BATCH_IN_FLIGHT_PER_THREAD * pool.getMaximumPoolSize();
+        try {
+            while (submitted < count || inFlight > 0) {
+                while (submitted < count && inFlight < maxInFlight) { //1 - keep the pool busy
+                    int index = submitted++;
+                    int rows = request.getSizes()[index][0], columns = request.getSizes()[index][1];
+                    Random random = request.getSeeds() == null ? new Random() : new Random(request.getSeeds()[index]);
+                    completion.submit(() -> {
+                        byte[] compressedMaze = null;
+                        try {
+                            compressedMaze = SolveProtocol.compress(mazeGenerator.generate(rows, columns, random));
+                        } catch (RuntimeException e) {
+                            LOG.error(String.format("maze %d (%dx%d) failed: %s", index, rows, columns, e));
+                        }
+                        ByteArrayOutputStream record = new ByteArrayOutputStream();
+                        GenerateProtocol.writeMaze(new DataOutputStream(record), index, compressedMaze);
+                        return record.toByteArray();
+                    });
+                    inFlight++;
+                }
+                Future<byte[]> ready = completion.poll(); //2 - send what is ready, flush before waiting
+                if (ready == null) {
+                    toClient.flush();
+                    ready = completion.take();
+                }
+                toClient.write(ready.get());
+                inFlight--;
+            }
+            GenerateProtocol.writeEnd(toClient);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error(e.getCause().toString());
+        }
+    }
+
+    /**
+     * create IMazeGenerator class using the name that in configuration file to generate the maze with.
+     *
+     * @return the configured maze generator
+     * @throws ReflectiveOperationException failed to create the generator
+     */
+    private static IMazeGenerator newMazeGenerator() throws ReflectiveOperationException {
+        Class<?> mazeGeneratorClass = Class.forName("Backend.algorithms.mazeGenerators." + Configurations.getInstance().getMazeGeneratingAlgorithm());
+        return (IMazeGenerator) mazeGeneratorClass.getDeclaredConstructor().newInstance();
+    }
 }
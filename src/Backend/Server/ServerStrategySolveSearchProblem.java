@@ -1,100 +1,214 @@
 package Backend.Server;
 
 import Backend.algorithms.mazeGenerators.Maze;
+import Backend.algorithms.mazeGenerators.MazeHash;
 import Backend.algorithms.search.ISearchingAlgorithm;
 import Backend.algorithms.search.SearchableMaze;
 import Backend.algorithms.search.Solution;
 
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.*;
 
 /**
  * solving maze server strategy
  */
 public class ServerStrategySolveSearchProblem extends AServerStrategy {
+    private static final int BATCH_IN_FLIGHT_PER_THREAD = 4; //mazes of a batch that are solved or waiting to be sent, per pool thread
+    private static final byte[] BATCH_END = new byte[0]; //marks that all the solutions of a batch were sent
+    private static final byte[] BATCH_FAILED = new byte[0]; //marks that the batch request could not be read to its end
 
     private static final String directoryPath = System.getProperty("java.io.tmpdir") + "Maze-Project\\"; //temp folder
-    private int counter;
-    private HashSet<Integer> hashSet;
+    private final SolutionCache cache;
+    private final Map<MazeHash, CompletableFuture<Solution>> inFlight; //mazes that are being solved right now
+    private SolutionStore store;
 
     /**
      * constructor
-     * load older mazes that solved before
+     * open the store of mazes that solved before
      */
     public ServerStrategySolveSearchProblem() {
         super("solve");
-        this.hashSet = new HashSet<>();
-        this.counter = 0;
-        Maze loadedMaze;
-        ObjectInputStream inMazeFile;
-        File directory = new File(directoryPath);
-        directory.mkdirs();
-        File file;
-        while (true) { //load all solved old
-            file = new File(directoryPath + "maze" + counter + ".maze");
-            if (file.exists()) {
-                try {
-                    inMazeFile = new ObjectInputStream(new FileInputStream(directoryPath + "maze" + counter + ".maze"));
-                    loadedMaze = (Maze) inMazeFile.readObject();
-                    hashSet.add(loadedMaze.hashCode());
-                    counter++;
-                } catch (IOException | ClassNotFoundException e) {
-                    LOG.error(e.toString());
-                    e.printStackTrace();
-                    break;
-                }
-            } else
-                break;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.cache = new SolutionCache(Configurations.getInstance().getSolutionCacheSize());
+        try {
+            this.store = new SolutionStore(directoryPath);
+            LOG.info(String.format("loaded %d solved mazes", this.store.size()));
+        } catch (IOException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
         }
     }
 
     @Override
     public void ServerStrategy(InputStream inFromClient, OutputStream outToClient) {
-        Solution solution;
-
         try {
-            ObjectInputStream fromClient = new ObjectInputStream(inFromClient);
-            ObjectOutputStream toClient = new ObjectOutputStream(outToClient);
-            Maze mazeFromClient = (Maze) fromClient.readObject();
+            BufferedInputStream fromClient = new BufferedInputStream(inFromClient);
+            if (SolveProtocol.isBatchRequest(fromClient)) {
+                solveBatch(fromClient, outToClient);
+                outToClient.close();
+            } else if (SolveProtocol.isBinaryRequest(fromClient)) {
+                Maze mazeFromClient = SolveProtocol.readRequest(fromClient);
+                SolveProtocol.writeResponse(outToClient, solve(mazeFromClient));
+                outToClient.close();
+            } else
+                legacyServerStrategy(fromClient, outToClient);
+        } catch (ClassNotFoundException | IOException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public boolean isCompleteRequest(byte[] request, int length) {
+        if (SolveProtocol.isBinaryRequest(request, length))
+            return SolveProtocol.isCompleteRequest(request, length);
+        if (SolveProtocol.isBatchRequest(request, length))
+            return SolveProtocol.isCompleteBatchRequest(request, length);
+        return super.isCompleteRequest(request, length);
+    }
 
-            solution = searchForOlderSolution(mazeFromClient);
+    /**
+     * solve the mazes of a batch request in parallel on the batch pool, every solution is sent with its id as soon as it is ready.
+     * a reader thread submits the mazes while they arrive and this thread sends the solutions,
+     * only a few mazes per pool thread are in flight, so a long batch does not fill the memory.
+     * if the request can't be read to its end the END is not sent, so the client knows the batch is incomplete.
+     *
+     * @param inFromClient input-stream from the client
+     * @param outToClient  output-stream to the client
+     * @throws IOException failed to communicate with the client, or the request is truncated or bad
+     */
+    private void solveBatch(InputStream inFromClient, OutputStream outToClient) throws IOException {
+        ThreadPoolExecutor pool = getBatchPool();
+        int maxInFlight = BATCH_IN_FLIGHT_PER_THREAD * pool.getMaximumPoolSize();
+        Semaphore inFlightPermits = new Semaphore(maxInFlight);
+        BlockingQueue<byte[]> solved = new LinkedBlockingQueue<>();
+        DataInputStream fromClient = new DataInputStream(inFromClient);
+        DataOutputStream toClient = new DataOutputStream(new BufferedOutputStream(outToClient));
+        SolveProtocol.readBatchStart(fromClient);
 
-            if (solution == null) {
-                solution = solveAndSave(mazeFromClient);
+        Thread reader = new Thread(() -> {
+            try {
+                int id;
+                while ((id = fromClient.readInt()) != SolveProtocol.END) { //1 - submit every maze while it arrives
+                    Maze maze = SolveProtocol.readBatchMaze(fromClient);
+                    int mazeId = id;
+                    inFlightPermits.acquire();
+                    pool.execute(() -> {
+                        Solution solution = null;
+                        try {
+                            solution = solve(maze);
+                        } catch (RuntimeException e) {
+                            LOG.error(String.format("maze %d failed: %s", mazeId, e));
+                        } finally { //even when solve throws an Error, so the permit of the maze is given back
+                            solved.add(solutionRecord(mazeId, solution));
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                LOG.error("batch request stopped: " + e);
+                solved.add(BATCH_FAILED);
+                return;
+            } catch (InterruptedException e) { //the solutions are not sent anymore
+                return;
+            }
+            try {
+                inFlightPermits.acquire(maxInFlight); //2 - wait until the submitted mazes are sent
+                solved.add(BATCH_END);
+            } catch (InterruptedException ignored) {
             }
-            toClient.writeObject(solution);
+        }, "solve-batch-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            while (true) { //3 - send what is ready, flush before waiting
+                byte[] record = solved.poll();
+                if (record == null) {
+                    toClient.flush();
+                    record = solved.take();
+                }
+                if (record == BATCH_END)
+                    break;
+                if (record == BATCH_FAILED) { //no END - the client must not take the batch as complete
+                    toClient.flush();
+                    throw new IOException("the batch request ended before its END");
+                }
+                toClient.write(record);
+                inFlightPermits.release();
+            }
+            toClient.writeInt(SolveProtocol.END);
             toClient.flush();
-            toClient.close();
-        } catch (ClassNotFoundException | IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reader.interrupt(); //stop the reader if the client is gone
+        }
+    }
+
+    /**
+     * @param id       id of the maze in the batch
+     * @param solution solution of the maze, null if it failed
+     * @return the batch record of the solution
+     */
+    private byte[] solutionRecord(int id, Solution solution) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try {
+            SolveProtocol.writeBatchSolution(new DataOutputStream(record), id, solution);
+        } catch (IOException e) { //never happens - writes to memory
             LOG.error(e.toString());
-            e.printStackTrace();
         }
+        return record.toByteArray();
     }
 
     /**
-     * search for older solutions of the given maze.
+     * serve a client that sends a Java serialized Maze and expects a Java serialized Solution
+     *
+     * @param inFromClient input-stream from the client
+     * @param outToClient  output-stream to the client
+     * @throws IOException            failed to communicate with the client
+     * @throws ClassNotFoundException the client sent an unknown class
+     */
+    private void legacyServerStrategy(InputStream inFromClient, OutputStream outToClient) throws IOException, ClassNotFoundException {
+        ObjectInputStream fromClient = new ObjectInputStream(inFromClient);
+        ObjectOutputStream toClient = new ObjectOutputStream(outToClient);
+        Maze mazeFromClient = (Maze) fromClient.readObject();
+        toClient.writeObject(solve(mazeFromClient));
+        toClient.flush();
+        toClient.close();
+    }
+
+    /**
+     * @param mazeFromClient maze to solve
+     * @return solution of the maze - an older one if the maze solved before
+     */
+    private Solution solve(Maze mazeFromClient) {
+        MazeHash hash = mazeFromClient.contentHash();
+        Solution solution = searchForOlderSolution(mazeFromClient, hash);
+        if (solution == null)
+            solution = solveAndSave(mazeFromClient, hash);
+        return solution;
+    }
+
+    /**
+     * search for older solutions of the given maze, first in memory and then in the store.
+     * a maze that never solved costs no disk access, a solved one costs at most one record read.
      *
      * @param mazeFromClient maze to solve
+     * @param hash           content hash of the maze
      * @return Solution if found. otherwise - null
      */
-    private Solution searchForOlderSolution(Maze mazeFromClient) {
-        Solution solution = null;
-        byte[] mazeFromClientAsArray = mazeFromClient.toByteArray();
+    private Solution searchForOlderSolution(Maze mazeFromClient, MazeHash hash) {
         try {
-            if (this.hashSet.contains(mazeFromClient.hashCode())) { //maybe solved
-                Maze loadedMaze;
-                ObjectInputStream inMazeFile;
-                for (int i = 0; i < counter; i++) { //search for solve
-                    inMazeFile = new ObjectInputStream(new FileInputStream(directoryPath + "maze" + i + ".maze"));
-                    loadedMaze = (Maze) inMazeFile.readObject();
-                    if (mazeFromClient.equals(loadedMaze)) {
-                        ObjectInputStream inSolutionFile = new ObjectInputStream(new FileInputStream(directoryPath + "solvedMaze" + i + ".solution"));
-                        return (Solution) inSolutionFile.readObject();
-                    }
-                }
-            }
-        } catch (IOException | ClassNotFoundException e) {
+            Solution solution = this.cache.get(mazeFromClient, hash);
+            if (solution != null || this.store == null)
+                return solution;
+            solution = this.store.get(mazeFromClient, hash);
+            if (solution != null)
+                this.cache.put(mazeFromClient, hash, solution);
+            return solution;
+        } catch (IOException e) {
             LOG.error(e.toString());
             e.printStackTrace();
         }
@@ -102,49 +216,68 @@ public class ServerStrategySolveSearchProblem extends AServerStrategy {
     }
 
     /**
-     * solve given maze and save the solution to the directory
+     * solve given maze and save the solution to the store.
+     * different mazes are solved in parallel, requests for a maze that is already being solved wait for that solve.
      *
      * @param mazeFromClient maze to solve
+     * @param hash           content hash of the maze
      * @return the given maze solution
      */
-    private Solution solveAndSave(Maze mazeFromClient) {
-        synchronized (this) {
-            // now when this is lock recheck if we have older solution
-            Solution solution;
-            if (this.hashSet.contains(mazeFromClient.hashCode())) {
-                solution = searchForOlderSolution(mazeFromClient);
-                if (solution != null)
-                    return solution;
-            }
-
-
+    private Solution solveAndSave(Maze mazeFromClient, MazeHash hash) {
+        CompletableFuture<Solution> flight = new CompletableFuture<>();
+        CompletableFuture<Solution> running = this.inFlight.putIfAbsent(hash, flight);
+        if (running != null) { //someone else is solving this maze
             try {
-                //create ISearchingAlgorithm class using the name that in configuration file to solve the maze with.
-                Class<?> mazeSearchClass = Class.forName("Backend.algorithms.search." + Configurations.getInstance().getMazeSearchingAlgorithm());
-                ISearchingAlgorithm mazeSearchAlgorithm = (ISearchingAlgorithm) mazeSearchClass.getDeclaredConstructor().newInstance();
-                solution = mazeSearchAlgorithm.solve(new SearchableMaze(mazeFromClient));
-            } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                return running.join();
+            } catch (CompletionException | CancellationException e) {
                 LOG.error(e.toString());
                 e.printStackTrace();
                 return null;
             }
-            try {
-                // save maze to a file
-                ObjectOutputStream outToMazeFile = new ObjectOutputStream(new FileOutputStream(directoryPath + "maze" + counter + ".maze"));
-                outToMazeFile.writeObject(mazeFromClient);
-                outToMazeFile.flush();
-                outToMazeFile.close();
-                // save Solution to a file
-                ObjectOutputStream outToSolutionFile = new ObjectOutputStream(new FileOutputStream(directoryPath + "solvedMaze" + counter++ + ".solution"));
-                outToSolutionFile.writeObject(solution);
-                outToSolutionFile.flush();
-                outToSolutionFile.close();
-                hashSet.add(mazeFromClient.hashCode());
-            } catch (IOException e) {
-                LOG.error(e.toString());
-                e.printStackTrace();
-            }
+        }
+
+        try {
+            // now when this maze is ours recheck if we have older solution
+            Solution solution = searchForOlderSolution(mazeFromClient, hash);
+            if (solution == null)
+                solution = solveWithAlgorithm(mazeFromClient, hash);
+            flight.complete(solution);
             return solution;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(hash, flight);
+        }
+    }
+
+    /**
+     * solve given maze with the configured algorithm and save the solution to the cache and the store
+     *
+     * @param mazeFromClient maze to solve
+     * @param hash           content hash of the maze
+     * @return the given maze solution, null if the configured algorithm could not be created
+     */
+    private Solution solveWithAlgorithm(Maze mazeFromClient, MazeHash hash) {
+        Solution solution;
+        try {
+            //create ISearchingAlgorithm class using the name that in configuration file to solve the maze with.
+            Class<?> mazeSearchClass = Class.forName("Backend.algorithms.search." + Configurations.getInstance().getMazeSearchingAlgorithm());
+            ISearchingAlgorithm mazeSearchAlgorithm = (ISearchingAlgorithm) mazeSearchClass.getDeclaredConstructor().newInstance();
+            solution = mazeSearchAlgorithm.solve(new SearchableMaze(mazeFromClient));
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
+            return null;
+        }
+        try {
+            this.cache.put(mazeFromClient, hash, solution);
+            if (this.store != null)
+                this.store.put(mazeFromClient, hash, solution);
+        } catch (IOException e) {
+            LOG.error(e.toString());
+            e.printStackTrace();
         }
+        return solution;
     }
 }
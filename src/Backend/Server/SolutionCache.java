@@ -0,0 +1,127 @@
+package Backend.Server;
+
+import Backend.algorithms.mazeGenerators.Maze;
+import Backend.algorithms.mazeGenerators.MazeHash;
+import Backend.algorithms.search.PackedMazePath;
+import Backend.algorithms.search.Solution;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * size bounded in-memory cache of maze solutions with least recently used eviction.
+ * solutions are kept packed (PackedMazePath) together with the compressed maze, so a hash collision is never a hit.
+ * the weight of an entry is the size of its compressed maze and packed path.
+ */
+public class SolutionCache {
+    private final long capacity;
+    private final LinkedHashMap<MazeHash, Entry> entries;
+    private final AtomicLong hits, misses;
+    private long weight;
+
+    /**
+     * constructor
+     *
+     * @param capacity maximum total size in bytes of the cached solutions
+     * @throws IllegalArgumentException capacity cant be < 0
+     */
+    public SolutionCache(long capacity) throws IllegalArgumentException {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity cant be < 0");
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); //access order - the eldest entry is the least recently used
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * @param maze maze to search its solution
+     * @param hash content hash of the maze
+     * @return the cached solution of the maze if found. otherwise - null
+     * @throws IOException failed to compress the maze
+     */
+    public Solution get(Maze maze, MazeHash hash) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(hash);
+        }
+        if (entry == null || !Arrays.equals(entry.compressedMaze, SolveProtocol.compress(maze))) { //missing or hash collision
+            this.misses.incrementAndGet();
+            return null;
+        }
+        this.hits.incrementAndGet();
+        return PackedMazePath.unpack(entry.packedPath);
+    }
+
+    /**
+     * add a solution to the cache, least recently used solutions are evicted until it fits.
+     * a solution bigger than the whole cache is not added.
+     *
+     * @param maze     solved maze
+     * @param hash     content hash of the maze
+     * @param solution solution of the maze
+     * @throws IOException failed to compress the maze
+     */
+    public void put(Maze maze, MazeHash hash, Solution solution) throws IOException {
+        Entry entry = new Entry(SolveProtocol.compress(maze), PackedMazePath.pack(solution));
+        if (entry.weight() > this.capacity)
+            return;
+        synchronized (this) {
+            Entry old = this.entries.put(hash, entry);
+            this.weight += entry.weight() - (old == null ? 0 : old.weight());
+            Iterator<Map.Entry<MazeHash, Entry>> eldest = this.entries.entrySet().iterator();
+            while (this.weight > this.capacity) {
+                this.weight -= eldest.next().getValue().weight();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * @return number of cached solutions
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return total size in bytes of the cached mazes and solutions
+     */
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * @return number of get calls that found the solution
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return number of get calls that did not find the solution
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * cached solution with the maze it solves
+     */
+    private static class Entry {
+        private final byte[] compressedMaze, packedPath;
+
+        private Entry(byte[] compressedMaze, byte[] packedPath) {
+            this.compressedMaze = compressedMaze;
+            this.packedPath = packedPath;
+        }
+
+        private long weight() {
+            return (long) this.compressedMaze.length + this.packedPath.length;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package Backend.Server;
+
+import Backend.algorithms.mazeGenerators.Maze;
+import Backend.algorithms.mazeGenerators.MazeHash;
+import Backend.algorithms.search.PackedMazePath;
+import Backend.algorithms.search.Solution;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * log structured store of solved mazes.
+ * records are appended to segment files, a segment is closed when it grows over the segment size and a new one is opened.
+ * record layout: [magic][maze hash - 16 bytes][compressed maze length][packed path length][compressed maze][packed path]
+ * the in-memory index (maze hash -> segment and offset) is rebuilt on startup by reading the record headers only.
+ */
+public class SolutionStore {
+    private static final Logger LOG = LogManager.getLogger("solve");
+    private static final int MAGIC = 0x4D5A5352, HEADER_SIZE = 28;
+    private static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    private final String directoryPath;
+    private final long segmentSize;
+    private final ArrayList<FileChannel> segments;
+    private final Map<MazeHash, Long> index; //maze hash -> segment number << 32 | offset in the segment
+    private FileChannel activeSegment;
+    private long activeSize;
+
+    /**
+     * constructor
+     *
+     * @param directoryPath directory of the segment files
+     * @throws IOException failed to open the segment files
+     */
+    public SolutionStore(String directoryPath) throws IOException {
+        this(directoryPath, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * constructor
+     * open all segments in the directory and index their records
+     *
+     * @param directoryPath directory of the segment files
+     * @param segmentSize   size in bytes that a segment is closed after
+     * @throws IOException              failed to open the segment files
+     * @throws IllegalArgumentException segment size is not in (0, 2GB)
+     */
+    public SolutionStore(String directoryPath, long segmentSize) throws IOException, IllegalArgumentException {
+        if (segmentSize <= 0 || segmentSize >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException("segment size must be in (0, 2GB)");
+        this.directoryPath = directoryPath;
+        this.segmentSize = segmentSize;
+        this.segments = new ArrayList<>();
+        this.index = new ConcurrentHashMap<>();
+        new File(directoryPath).mkdirs();
+        File file;
+        while ((file = segmentFile(this.segments.size())).exists()) { //index all segments
+            FileChannel segment = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.activeSize = this.indexSegment(segment, this.segments.size());
+            this.segments.add(segment);
+        }
+        if (this.segments.isEmpty())
+            this.openSegment();
+        this.activeSegment = this.segments.get(this.segments.size() - 1);
+    }
+
+    /**
+     * read the headers of a segment into the index.
+     * a torn record at the end of the segment (the server stopped in the middle of a write) is cut off.
+     *
+     * @param segment segment to index
+     * @param number  number of the segment
+     * @return size of the valid part of the segment
+     * @throws IOException failed to read the segment
+     */
+    private long indexSegment(FileChannel segment, int number) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0, size = segment.size();
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            while (header.hasRemaining() && segment.read(header, position + header.position()) > 0) ;
+            header.flip();
+            if (header.getInt() != MAGIC)
+                break;
+            MazeHash hash = new MazeHash(header.getLong(), header.getLong());
+            long next = position + HEADER_SIZE + header.getInt() + header.getInt();
+            if (next > size)
+                break;
+            this.index.putIfAbsent(hash, ((long) number << 32) | position);
+            position = next;
+        }
+        if (position < size) {
+            LOG.error(String.format("segment %d is torn at %d, cutting %d bytes", number, position, size - position));
+            segment.truncate(position);
+        }
+        return position;
+    }
+
+    /**
+     * @return number of solutions in the store
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * @param hash content hash of a maze
+     * @return true if a solution of a maze with this hash is in the store
+     */
+    public boolean contains(MazeHash hash) {
+        return this.index.containsKey(hash);
+    }
+
+    /**
+     * read the solution of a maze.
+     * a miss does not touch the disk, a hit reads one record.
+     *
+     * @param maze maze to search its solution
+     * @param hash content hash of the maze
+     * @return the solution if found. otherwise - null
+     * @throws IOException failed to read the record
+     */
+    public Solution get(Maze maze, MazeHash hash) throws IOException {
+        Long location = this.index.get(hash);
+        if (location == null)
+            return null;
+        FileChannel segment;
+        synchronized (this) {
+            segment = this.segments.get((int) (location >>> 32));
+        }
+        long position = location & 0xFFFFFFFFL;
+        ByteBuffer header = readFully(segment, ByteBuffer.allocate(HEADER_SIZE), position);
+        header.position(20);
+        int mazeLength = header.getInt(), pathLength = header.getInt();
+        byte[] record = readFully(segment, ByteBuffer.allocate(mazeLength + pathLength), position + HEADER_SIZE).array();
+        byte[] compressedMaze = SolveProtocol.compress(maze);
+        if (compressedMaze.length != mazeLength || !Arrays.equals(record, 0, mazeLength, compressedMaze, 0, mazeLength)) //hash collision
+            return null;
+        return PackedMazePath.unpack(record, mazeLength);
+    }
+
+    /**
+     * append a solved maze to the store
+     *
+     * @param maze     solved maze
+     * @param hash     content hash of the maze
+     * @param solution solution of the maze
+     * @throws IOException failed to write the record
+     */
+    public void put(Maze maze, MazeHash hash, Solution solution) throws IOException {
+        byte[] compressedMaze = SolveProtocol.compress(maze), packedPath = PackedMazePath.pack(solution);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + compressedMaze.length + packedPath.length);
+        record.putInt(MAGIC).putLong(hash.getHigh()).putLong(hash.getLow());
+        record.putInt(compressedMaze.length).putInt(packedPath.length);
+        record.put(compressedMaze).put(packedPath).flip();
+        synchronized (this) {
+            if (this.index.containsKey(hash))
+                return;
+            if (this.activeSize > 0 && this.activeSize + record.remaining() > this.segmentSize) {
+                this.openSegment();
+                this.activeSegment = this.segments.get(this.segments.size() - 1);
+            }
+            long position = this.activeSize;
+            while (record.hasRemaining())
+                this.activeSize += this.activeSegment.write(record, this.activeSize);
+            this.index.put(hash, ((long) (this.segments.size() - 1) << 32) | position); //only after the record is written
+        }
+    }
+
+    /**
+     * close all segments
+     *
+     * @throws IOException failed to close a segment
+     */
+    public synchronized void close() throws IOException {
+        for (FileChannel segment : this.segments)
+            segment.close();
+    }
+
+    private void openSegment() throws IOException {
+        File file = segmentFile(this.segments.size());
+        this.segments.add(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        this.activeSize = 0;
+    }
+
+    private File segmentFile(int number) {
+        return new File(this.directoryPath + String.format("solutions%05d.segment", number));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("unexpected end of segment");
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,299 @@
+package Backend.Server;
+
+import Backend.IO.MyCompressorOutputStream;
+import Backend.algorithms.mazeGenerators.Maze;
+import Backend.algorithms.search.PackedMazePath;
+import Backend.algorithms.search.Solution;
+
+import java.io.*;
+
+/**
+ * binary protocol of the maze solving server.
+ * request:  [magic - 4 bytes][version - 1 byte][length - 4 bytes][maze compressed by MyCompressorOutputStream]
+ * response: [magic - 4 bytes][version - 1 byte][status - 1 byte][length - 4 bytes][path packed by PackedMazePath]
+ * batch request:  [batch magic - 4 bytes][version - 1 byte] then for every maze [id - 4 bytes][length - 4 bytes][compressed maze],
+ * the id -1 ends the request.
+ * batch response: for every maze in the order they are solved [id - 4 bytes][status - 1 byte][length - 4 bytes][packed path],
+ * the id -1 ends the response.
+ * the magics never start with 0xAC, so the server can tell them from a Java serialization stream (0xACED) of older clients.
+ */
+public class SolveProtocol {
+    public static final int MAGIC = 0x4D5A534C; //"MZSL"
+    public static final int BATCH_MAGIC = 0x4D5A5342; //"MZSB"
+    public static final int END = -1;
+    public static final byte VERSION = 1;
+    public static final byte STATUS_SOLVED = 0, STATUS_FAILED = 1;
+    private static final int MAX_LENGTH = 64 << 20;
+
+    private SolveProtocol() {
+    }
+
+    /**
+     * check if a stream starts with a binary request, without consuming it
+     *
+     * @param in stream that supports mark
+     * @return true - binary request, false - Java serialization request
+     * @throws IOException failed to read from the stream
+     */
+    public static boolean isBinaryRequest(BufferedInputStream in) throws IOException {
+        return peekInt(in) == MAGIC;
+    }
+
+    /**
+     * check if a stream starts with a batch request, without consuming it
+     *
+     * @param in stream that supports mark
+     * @return true if the stream starts with the batch magic
+     * @throws IOException failed to read from the stream
+     */
+    public static boolean isBatchRequest(BufferedInputStream in) throws IOException {
+        return peekInt(in) == BATCH_MAGIC;
+    }
+
+    /**
+     * @param request bytes received from the client so far
+     * @param length  number of bytes received
+     * @return true if the bytes start with a binary request that was fully received
+     */
+    public static boolean isCompleteRequest(byte[] request, int length) {
+        if (length < 9)
+            return false;
+        int payloadLength = readInt(request, 5);
+        return payloadLength < 0 || payloadLength > MAX_LENGTH || length >= 9 + payloadLength; //a bad length is complete - it fails when read
+    }
+
+    /**
+     * @param request bytes received from the client
+     * @param length  number of bytes received
+     * @return true if the bytes start with the binary request magic
+     */
+    public static boolean isBinaryRequest(byte[] request, int length) {
+        return length >= 4 && readInt(request, 0) == MAGIC;
+    }
+
+    /**
+     * @param request bytes received from the client
+     * @param length  number of bytes received
+     * @return true if the bytes start with the batch request magic
+     */
+    public static boolean isBatchRequest(byte[] request, int length) {
+        return length >= 4 && readInt(request, 0) == BATCH_MAGIC;
+    }
+
+    /**
+     * @param request bytes received from the client so far
+     * @param length  number of bytes received
+     * @return true if the bytes hold a batch request up to its end mark
+     */
+    public static boolean isCompleteBatchRequest(byte[] request, int length) {
+        long position = 5;
+        while (position + 4 <= length) {
+            if (readInt(request, (int) position) == END)
+                return true;
+            if (position + 8 > length)
+                return false;
+            int payloadLength = readInt(request, (int) position + 4);
+            if (payloadLength < 0 || payloadLength > MAX_LENGTH) //a bad length is complete - it fails when read
+                return true;
+            position += 8 + payloadLength;
+        }
+        return false;
+    }
+
+    /**
+     * @param out stream to the server
+     * @throws IOException failed to write
+     */
+    public static void writeBatchStart(DataOutputStream out) throws IOException {
+        out.writeInt(BATCH_MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * write one maze of a batch request, without flushing
+     *
+     * @param out  stream to the server
+     * @param id   id of the maze, not -1
+     * @param maze maze to solve
+     * @throws IOException              failed to write
+     * @throws IllegalArgumentException the id is -1
+     */
+    public static void writeBatchMaze(DataOutputStream out, int id, Maze maze) throws IOException, IllegalArgumentException {
+        if (id == END)
+            throw new IllegalArgumentException("the id -1 ends the batch");
+        byte[] compressedMaze = compress(maze);
+        out.writeInt(id);
+        out.writeInt(compressedMaze.length);
+        out.write(compressedMaze);
+    }
+
+    /**
+     * @param in stream from the client, after the batch magic
+     * @throws IOException bad version or failed to read it
+     */
+    public static void readBatchStart(DataInputStream in) throws IOException {
+        if (in.readInt() != BATCH_MAGIC)
+            throw new IOException("not a batch solve request");
+        byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("unsupported protocol version " + version);
+    }
+
+    /**
+     * read the maze of a batch record, after its id
+     *
+     * @param in stream from the client
+     * @return the maze to solve
+     * @throws IOException bad record or failed to read it
+     */
+    public static Maze readBatchMaze(DataInputStream in) throws IOException {
+        return decompress(readPayload(in));
+    }
+
+    /**
+     * write one solution of a batch response, without flushing
+     *
+     * @param out      stream to the client
+     * @param id       id of the maze
+     * @param solution solution of the maze, null if it could not be solved
+     * @throws IOException failed to write
+     */
+    public static void writeBatchSolution(DataOutputStream out, int id, Solution solution) throws IOException {
+        out.writeInt(id);
+        writeSolution(out, solution);
+    }
+
+    /**
+     * read the solution of a batch record, after its id
+     *
+     * @param in stream from the server
+     * @return solution of the maze, null if the server failed to solve it
+     * @throws IOException bad record or failed to read it
+     */
+    public static Solution readBatchSolution(DataInputStream in) throws IOException {
+        return readSolution(in);
+    }
+
+    /**
+     * @param out  stream to the server
+     * @param maze maze to solve
+     * @throws IOException failed to write the request
+     */
+    public static void writeRequest(OutputStream out, Maze maze) throws IOException {
+        byte[] compressedMaze = compress(maze);
+        DataOutputStream toServer = new DataOutputStream(out);
+        toServer.writeInt(MAGIC);
+        toServer.writeByte(VERSION);
+        toServer.writeInt(compressedMaze.length);
+        toServer.write(compressedMaze);
+        toServer.flush();
+    }
+
+    /**
+     * @param in stream from the client
+     * @return the maze to solve
+     * @throws IOException bad request or failed to read it
+     */
+    public static Maze readRequest(InputStream in) throws IOException {
+        DataInputStream fromClient = new DataInputStream(in);
+        readHeader(fromClient);
+        return decompress(readPayload(fromClient));
+    }
+
+    /**
+     * @param out      stream to the client
+     * @param solution solution of the maze, null if it could not be solved
+     * @throws IOException failed to write the response
+     */
+    public static void writeResponse(OutputStream out, Solution solution) throws IOException {
+        DataOutputStream toClient = new DataOutputStream(out);
+        toClient.writeInt(MAGIC);
+        toClient.writeByte(VERSION);
+        writeSolution(toClient, solution);
+        toClient.flush();
+    }
+
+    /**
+     * @param in stream from the server
+     * @return solution of the maze, null if the server failed to solve it
+     * @throws IOException bad response or failed to read it
+     */
+    public static Solution readResponse(InputStream in) throws IOException {
+        DataInputStream fromServer = new DataInputStream(in);
+        readHeader(fromServer);
+        return readSolution(fromServer);
+    }
+
+    /**
+     * @param maze maze to compress
+     * @return the maze compressed by MyCompressorOutputStream
+     * @throws IOException failed to compress
+     */
+    public static byte[] compress(Maze maze) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MyCompressorOutputStream compressor = new MyCompressorOutputStream(bytes);
+        compressor.write(maze.toByteArray());
+        compressor.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param compressedMaze maze compressed by MyCompressorOutputStream
+     * @return the maze
+     * @throws IOException the bytes are not a compressed maze
+     */
+    public static Maze decompress(byte[] compressedMaze) throws IOException {
+        try {
+            return Maze.fromCompressed(compressedMaze);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    private static void readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("not a maze solving protocol message");
+        byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("unsupported protocol version " + version);
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH)
+            throw new IOException("bad payload length " + length);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    private static void writeSolution(DataOutputStream out, Solution solution) throws IOException {
+        byte[] packedPath = solution == null ? new byte[0] : PackedMazePath.pack(solution);
+        out.writeByte(solution == null ? STATUS_FAILED : STATUS_SOLVED);
+        out.writeInt(packedPath.length);
+        out.write(packedPath);
+    }
+
+    private static Solution readSolution(DataInputStream in) throws IOException {
+        byte status = in.readByte();
+        byte[] packedPath = readPayload(in);
+        if (status != STATUS_SOLVED)
+            return null;
+        try {
+            return PackedMazePath.unpack(packedPath);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    private static int peekInt(BufferedInputStream in) throws IOException {
+        in.mark(4);
+        byte[] start = in.readNBytes(4);
+        in.reset();
+        return start.length < 4 ? 0 : readInt(start, 0);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
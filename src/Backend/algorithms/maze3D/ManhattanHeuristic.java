@@ -0,0 +1,34 @@
+package Backend.algorithms.maze3D;
+
+import Backend.algorithms.search.IHeuristic;
+
+/**
+ * Manhattan distance for 3D grids with 6 straight moves of the same cost.
+ * admissible only when the given move cost is not bigger than the real cost of every move.
+ */
+public class ManhattanHeuristic implements IHeuristic {
+    private final int rows, columns, moveCost;
+
+    /**
+     * constructor
+     *
+     * @param rows    number of rows in every layer of the grid
+     * @param columns number of columns in every layer of the grid,
+     *                state index is (depth * rows + row) * columns + column
+     * @param moveCost cost of one move
+     */
+    public ManhattanHeuristic(int rows, int columns, int moveCost) {
+        this.rows = rows;
+        this.columns = columns;
+        this.moveCost = moveCost;
+    }
+
+    @Override
+    public int estimate(int state, int goal) {
+        int layerSize = this.rows * this.columns;
+        int dDepth = Math.abs(state / layerSize - goal / layerSize);
+        int dRows = Math.abs((state % layerSize) / this.columns - (goal % layerSize) / this.columns);
+        int dColumns = Math.abs(state % this.columns - goal % this.columns);
+        return this.moveCost * (dDepth + dRows + dColumns);
+    }
+}
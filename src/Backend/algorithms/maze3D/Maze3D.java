@@ -417,6 +417,28 @@ public class Maze3D {
                 this.grid[position.getDepthIndex()][position.getRowIndex()][position.getColumnIndex()] == WALL;
     }
 
+    /**
+     * @param depth  depth index of the position
+     * @param row    row index of the position
+     * @param column column index of the position
+     * @return true if it contains WALL otherwise false. invalid position will return false too.
+     */
+    public boolean positionOfWall(int depth, int row, int column) {
+        return 0 <= depth && depth < this.getDepthSize() && 0 <= row && row < this.getRowsSize() &&
+                0 <= column && column < this.getColumnsSize() && this.grid[depth][row][column] == WALL;
+    }
+
+    /**
+     * @param depth  depth index of the position
+     * @param row    row index of the position
+     * @param column column index of the position
+     * @return true if it contains TILE otherwise false. invalid position will return false too.
+     */
+    public boolean positionOfTile(int depth, int row, int column) {
+        return 0 <= depth && depth < this.getDepthSize() && 0 <= row && row < this.getRowsSize() &&
+                0 <= column && column < this.getColumnsSize() && this.grid[depth][row][column] == TILE;
+    }
+
     /**
      * @param position a valid position in the maze
      * @return true if it contains TILE otherwise false. invalid position will return false too.
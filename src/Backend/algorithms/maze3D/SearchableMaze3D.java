@@ -1,12 +1,15 @@
 package Backend.algorithms.maze3D;
 
 import Backend.algorithms.search.AState;
+import Backend.algorithms.search.IHeuristic;
 import Backend.algorithms.search.ISearchable;
 
 import java.util.ArrayList;
 
 public class SearchableMaze3D implements ISearchable {
+    private static final int MOVE_COST = 0, MAX_SUCCESSORS = 6; //3D moves have no cost
     private final Maze3D maze;
+    private final int depth, rows, columns;
     private final Maze3DState startState, goalState;
 
     /**
@@ -19,6 +22,9 @@ public class SearchableMaze3D implements ISearchable {
         if (maze == null)
             throw new IllegalArgumentException("cant handle null maze");
         this.maze = maze;
+        this.depth = maze.getDepthSize();
+        this.rows = maze.getRowsSize();
+        this.columns = maze.getColumnsSize();
         this.startState = new Maze3DState(null, maze.getStartPosition(), 0);
         this.goalState = new Maze3DState(null, maze.getGoalPosition(), 0);
     }
@@ -44,20 +50,83 @@ public class SearchableMaze3D implements ISearchable {
         ArrayList<AState> possibleStates = new ArrayList<>();
         if (state == null)
             return possibleStates;
-        Position3D currentPosition = (Position3D) state.getCurrentState();
-        if (maze.validMazePosition(currentPosition.getUpPosition()) && !maze.positionOfWall(currentPosition.getUpPosition())) // UP
-            possibleStates.add(new Maze3DState(state, currentPosition.getUpPosition(), 0));
-        if (maze.validMazePosition(currentPosition.getRightPosition()) && !maze.positionOfWall(currentPosition.getRightPosition())) // RIGHT
-            possibleStates.add(new Maze3DState(state, currentPosition.getRightPosition(), 0));
-        if (maze.validMazePosition(currentPosition.getDownPosition()) && !maze.positionOfWall(currentPosition.getDownPosition())) // DOWN
-            possibleStates.add(new Maze3DState(state, currentPosition.getDownPosition(), 0));
-        if (maze.validMazePosition(currentPosition.getLeftPosition()) && !maze.positionOfWall(currentPosition.getLeftPosition())) // LEFT
-            possibleStates.add(new Maze3DState(state, currentPosition.getLeftPosition(), 0));
-        if (maze.validMazePosition(currentPosition.getHigherPosition()) && !maze.positionOfWall(currentPosition.getHigherPosition())) // HIGH
-            possibleStates.add(new Maze3DState(state, currentPosition.getHigherPosition(), 0));
-        if (maze.validMazePosition(currentPosition.getLowerPosition()) && !maze.positionOfWall(currentPosition.getLowerPosition())) //LOW
-            possibleStates.add(new Maze3DState(state, currentPosition.getLowerPosition(), 0));
-
+        int[] successors = new int[MAX_SUCCESSORS], costs = new int[MAX_SUCCESSORS];
+        int count = this.getSuccessors(this.getStateIndex(state), successors, costs);
+        for (int i = 0; i < count; i++)
+            possibleStates.add(this.getState(successors[i], state, state.getCost() + costs[i]));
         return possibleStates;
     }
+
+    /**
+     * @return number of cells in the maze, state index is (depth * rows + row) * columns + column
+     */
+    @Override
+    public int getStatesCount() {
+        return this.depth * this.rows * this.columns;
+    }
+
+    @Override
+    public int getStateIndex(AState state) {
+        Position3D position = (Position3D) state.getCurrentState();
+        return (position.getDepthIndex() * this.rows + position.getRowIndex()) * this.columns + position.getColumnIndex();
+    }
+
+    @Override
+    public AState getState(int index, AState prevState, int cost) {
+        int layerSize = this.rows * this.columns;
+        Position3D position = new Position3D(index / layerSize, (index % layerSize) / this.columns, index % this.columns);
+        return new Maze3DState(prevState, position, cost);
+    }
+
+    /**
+     * @return Manhattan distance to the goal times MOVE_COST - 0 for every state while moves have no cost
+     */
+    @Override
+    public IHeuristic getHeuristic() {
+        return new ManhattanHeuristic(this.rows, this.columns, MOVE_COST);
+    }
+
+    @Override
+    public int getMaxSuccessorsCount() {
+        return MAX_SUCCESSORS;
+    }
+
+    /**
+     * all optional 1 block moves in the maze from the given cell, moves have no cost (MOVE_COST).
+     *
+     * @param index      index of a valid state in the problem
+     * @param successors filled with the indexes of the next states
+     * @param costs      filled with the cost of the move to each of the next states
+     * @return number of next states written into the arrays
+     */
+    @Override
+    public int getSuccessors(int index, int[] successors, int[] costs) {
+        int layerSize = this.rows * this.columns, count = 0;
+        int depth = index / layerSize, row = (index % layerSize) / this.columns, column = index % this.columns;
+        if (maze.positionOfTile(depth, row - 1, column)) { // UP
+            successors[count] = index - this.columns;
+            costs[count++] = MOVE_COST;
+        }
+        if (maze.positionOfTile(depth, row, column + 1)) { // RIGHT
+            successors[count] = index + 1;
+            costs[count++] = MOVE_COST;
+        }
+        if (maze.positionOfTile(depth, row + 1, column)) { // DOWN
+            successors[count] = index + this.columns;
+            costs[count++] = MOVE_COST;
+        }
+        if (maze.positionOfTile(depth, row, column - 1)) { // LEFT
+            successors[count] = index - 1;
+            costs[count++] = MOVE_COST;
+        }
+        if (maze.positionOfTile(depth - 1, row, column)) { // HIGH
+            successors[count] = index - layerSize;
+            costs[count++] = MOVE_COST;
+        }
+        if (maze.positionOfTile(depth + 1, row, column)) { // LOW
+            successors[count] = index + layerSize;
+            costs[count++] = MOVE_COST;
+        }
+        return count;
+    }
 }
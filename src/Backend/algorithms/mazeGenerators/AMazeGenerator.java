@@ -1,10 +1,17 @@
 package Backend.algorithms.mazeGenerators;
 
+import java.util.Random;
+
 /**
  * abstract 2D maze generator
  */
 public abstract class AMazeGenerator implements IMazeGenerator {
 
+    @Override
+    public Maze generate(int rows, int columns) {
+        return generate(rows, columns, new Random());
+    }
+
     public long measureAlgorithmTimeMillis(int rows, int columns) {
         long startTime, finishTime;
         startTime = System.currentTimeMillis();
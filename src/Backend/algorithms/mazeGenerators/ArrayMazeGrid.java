@@ -0,0 +1,56 @@
+package Backend.algorithms.mazeGenerators;
+
+import java.util.Arrays;
+
+/**
+ * maze grid that keeps every cell as an int - 1 for WALL, 0 for TILE.
+ */
+public class ArrayMazeGrid implements IMazeGrid {
+    private static final int WALL = 1, TILE = 0;
+    private final int[][] grid;
+
+    /**
+     * constructor
+     *
+     * @param rows    number of rows
+     * @param columns number of columns
+     */
+    public ArrayMazeGrid(int rows, int columns) {
+        this.grid = new int[rows][columns];
+    }
+
+    /**
+     * constructor - wrap the given array without copying it
+     *
+     * @param grid a grid full of WALLs (1) and TILEs (0)
+     */
+    public ArrayMazeGrid(int[][] grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public int getRowsSize() {
+        return this.grid.length;
+    }
+
+    @Override
+    public int getColumnsSize() {
+        return this.grid[0].length;
+    }
+
+    @Override
+    public boolean isWall(int row, int column) {
+        return this.grid[row][column] == WALL;
+    }
+
+    @Override
+    public void setWall(int row, int column, boolean wall) {
+        this.grid[row][column] = wall ? WALL : TILE;
+    }
+
+    @Override
+    public void fill(boolean wall) {
+        for (int[] row : this.grid)
+            Arrays.fill(row, wall ? WALL : TILE);
+    }
+}
@@ -0,0 +1,100 @@
+package Backend.algorithms.mazeGenerators;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * maze grid that keeps every cell as one bit of a long[] in row-major order.
+ * cell (row, column) is bit (row * columns + column), 1 for WALL and 0 for TILE.
+ * 32 times smaller than an int per cell, and every row is contiguous in memory.
+ */
+public class BitMazeGrid implements IMazeGrid {
+    private final int rows, columns;
+    private final long[] bits;
+
+    /**
+     * constructor - all the cells are TILEs
+     *
+     * @param rows    number of rows
+     * @param columns number of columns
+     * @throws IllegalArgumentException the grid has more than Integer.MAX_VALUE cells
+     */
+    public BitMazeGrid(int rows, int columns) throws IllegalArgumentException {
+        long cells = (long) rows * columns;
+        if (rows < 0 || columns < 0 || cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("grid size must be between 0 and Integer.MAX_VALUE cells");
+        this.rows = rows;
+        this.columns = columns;
+        this.bits = new long[(int) ((cells + 63) >>> 6)];
+    }
+
+    /**
+     * create a grid from cells that are packed 8 in a byte, first cell in the lowest bit (the MyCompressorOutputStream format).
+     * the packed bytes are exactly the little-endian bytes of the grid words, so they are copied a long at a time.
+     *
+     * @param rows    number of rows
+     * @param columns number of columns
+     * @param packed  array that contains the packed cells
+     * @param offset  first packed byte
+     * @return the grid
+     * @throws IllegalArgumentException the array is too short for the grid, or a bad grid size
+     */
+    static BitMazeGrid fromPacked(int rows, int columns, byte[] packed, int offset) throws IllegalArgumentException {
+        long cells = (long) rows * columns;
+        if (rows >= 0 && columns >= 0 && (offset < 0 || packed.length - offset < (cells + 7) >>> 3)) //before the grid is allocated
+            throw new IllegalArgumentException("the array is too short for the grid");
+        BitMazeGrid grid = new BitMazeGrid(rows, columns);
+        int packedLength = (int) ((cells + 7) >>> 3), wholeWords = packedLength >>> 3;
+        ByteBuffer.wrap(packed, offset, packedLength).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(grid.bits, 0, wholeWords);
+        for (int i = wholeWords << 3; i < packedLength; i++) //the last partial word
+            grid.bits[wholeWords] |= (packed[offset + i] & 0xFFL) << ((i & 7) << 3);
+        int tail = (int) (cells & 63);
+        if (tail != 0) //keep the bits after the last cell clear
+            grid.bits[grid.bits.length - 1] &= (1L << tail) - 1;
+        return grid;
+    }
+
+    @Override
+    public int getRowsSize() {
+        return this.rows;
+    }
+
+    @Override
+    public int getColumnsSize() {
+        return this.columns;
+    }
+
+    @Override
+    public boolean isWall(int row, int column) {
+        int index = row * this.columns + column;
+        return (this.bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setWall(int row, int column, boolean wall) {
+        int index = row * this.columns + column;
+        if (wall)
+            this.bits[index >>> 6] |= 1L << index;
+        else
+            this.bits[index >>> 6] &= ~(1L << index);
+    }
+
+    @Override
+    public long getWord(int index) {
+        return this.bits[index];
+    }
+
+    @Override
+    public int getWordsCount() {
+        return this.bits.length;
+    }
+
+    @Override
+    public void fill(boolean wall) {
+        Arrays.fill(this.bits, wall ? -1L : 0L);
+        int tail = (this.rows * this.columns) & 63;
+        if (wall && tail != 0) //keep the bits after the last cell clear
+            this.bits[this.bits.length - 1] = (1L << tail) - 1;
+    }
+}
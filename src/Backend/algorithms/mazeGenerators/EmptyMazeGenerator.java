@@ -1,16 +1,18 @@
 package Backend.algorithms.mazeGenerators;
 
+import java.util.Random;
+
 /**
  * Empty maze generator
  */
 public class EmptyMazeGenerator extends AMazeGenerator {
 
     @Override
-    public Maze generate(int rows, int columns) {
+    public Maze generate(int rows, int columns, Random random) {
         Maze maze = new Maze(rows, columns);
         maze.cleanAllWalls();
-        maze.generateStartPosition();
-        maze.generateGoalPosition();
+        maze.generateStartPosition(random);
+        maze.generateGoalPosition(random);
         return maze;
     }
 }
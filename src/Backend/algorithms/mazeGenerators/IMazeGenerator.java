@@ -1,5 +1,7 @@
 package Backend.algorithms.mazeGenerators;
 
+import java.util.Random;
+
 /**
  * 2D maze generator interface
  */
@@ -12,6 +14,15 @@ public interface IMazeGenerator {
      */
     Maze generate(int rows, int columns);
 
+    /***
+     * generate a maze, all the random choices are taken from the given random
+     * @param rows number of rows of the maze to generate
+     * @param columns number of columns of the maze to generate
+     * @param random source of the random choices, a seeded Random gives the same maze every time
+     * @return 2D generated maze
+     */
+    Maze generate(int rows, int columns, Random random);
+
     /***
      * measure the time to generate maze algorithm
      * @param rows number of rows of the maze to generate
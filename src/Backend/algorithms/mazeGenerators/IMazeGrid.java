@@ -0,0 +1,62 @@
+package Backend.algorithms.mazeGenerators;
+
+/**
+ * storage of a 2D maze grid - every cell is a WALL or a TILE.
+ * cells are addressed by row and column, the caller is responsible for valid indexes.
+ * grids are not serialized - a Maze is serialized with its cells as int[][] (Maze.writeObject).
+ */
+public interface IMazeGrid {
+    /**
+     * @return number of rows in the grid
+     */
+    int getRowsSize();
+
+    /**
+     * @return number of columns in the grid
+     */
+    int getColumnsSize();
+
+    /**
+     * @param row    row index of the cell
+     * @param column column index of the cell
+     * @return true if the cell contains WALL, false if it contains TILE
+     */
+    boolean isWall(int row, int column);
+
+    /**
+     * @param row    row index of the cell
+     * @param column column index of the cell
+     * @param wall   true to put a WALL in the cell, false to put a TILE
+     */
+    void setWall(int row, int column, boolean wall);
+
+    /**
+     * put the same value in every cell of the grid
+     *
+     * @param wall true to fill with WALLs, false to fill with TILEs
+     */
+    void fill(boolean wall);
+
+    /**
+     * the grid as a row-major bitset - bit i of word w is the cell (w * 64 + i), 1 for WALL.
+     * bits after the last cell are 0.
+     *
+     * @param index word index in [0, getWordsCount())
+     * @return 64 cells of the grid packed in a long
+     */
+    default long getWord(int index) {
+        int columns = this.getColumnsSize(), from = index << 6, to = Math.min(from + 64, this.getRowsSize() * columns);
+        long word = 0;
+        for (int cell = from; cell < to; cell++)
+            if (this.isWall(cell / columns, cell % columns))
+                word |= 1L << cell;
+        return word;
+    }
+
+    /**
+     * @return number of words in the row-major bitset of the grid
+     */
+    default int getWordsCount() {
+        return (int) (((long) this.getRowsSize() * this.getColumnsSize() + 63) >>> 6);
+    }
+}
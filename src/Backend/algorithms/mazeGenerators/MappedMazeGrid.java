@@ -0,0 +1,79 @@
+package Backend.algorithms.mazeGenerators;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * read-only maze grid over the packed cells of a maze file that is mapped to memory (Maze.open).
+ * cells are packed 8 in a byte, first cell in the lowest bit - the same bits as BitMazeGrid words in little-endian order.
+ * nothing is read until a cell is asked for, the OS page cache loads and drops the pages.
+ * the grid is not serialized itself - serializing its Maze reads every cell into an int[][] (see Maze.writeObject).
+ */
+final class MappedMazeGrid implements IMazeGrid {
+    private final int rows, columns;
+    private final ByteBuffer packed;
+
+    /**
+     * constructor
+     *
+     * @param rows    number of rows
+     * @param columns number of columns
+     * @param packed  mapped packed cells, at least (rows * columns + 7) / 8 bytes from position 0
+     * @throws IllegalArgumentException the buffer is too small for the grid
+     */
+    MappedMazeGrid(int rows, int columns, ByteBuffer packed) throws IllegalArgumentException {
+        if (packed.capacity() < ((long) rows * columns + 7) >>> 3)
+            throw new IllegalArgumentException("the buffer is too small for the grid");
+        this.rows = rows;
+        this.columns = columns;
+        this.packed = packed.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public int getRowsSize() {
+        return this.rows;
+    }
+
+    @Override
+    public int getColumnsSize() {
+        return this.columns;
+    }
+
+    @Override
+    public boolean isWall(int row, int column) {
+        int index = row * this.columns + column;
+        return (this.packed.get(index >>> 3) & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * @throws UnsupportedOperationException the grid is read-only
+     */
+    @Override
+    public void setWall(int row, int column, boolean wall) {
+        throw new UnsupportedOperationException("mapped maze grid is read-only");
+    }
+
+    /**
+     * @throws UnsupportedOperationException the grid is read-only
+     */
+    @Override
+    public void fill(boolean wall) {
+        throw new UnsupportedOperationException("mapped maze grid is read-only");
+    }
+
+    @Override
+    public long getWord(int index) {
+        long cells = (long) this.rows * this.columns;
+        int from = index << 3, packedLength = (int) ((cells + 7) >>> 3);
+        long word;
+        if (from + 8 <= packedLength)
+            word = this.packed.getLong(from);
+        else {
+            word = 0;
+            for (int i = from; i < packedLength; i++)
+                word |= (this.packed.get(i) & 0xFFL) << ((i - from) << 3);
+        }
+        long tail = cells - ((long) index << 6);
+        return tail < 64 ? word & ((1L << tail) - 1) : word; //keep the bits after the last cell clear
+    }
+}
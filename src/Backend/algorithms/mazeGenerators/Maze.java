@@ -1,14 +1,34 @@
 package Backend.algorithms.mazeGenerators;
 
-import java.io.Serializable;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
  * Represent a 2D maze
  */
 public class Maze implements Serializable {
+    private static final long serialVersionUID = 4693485206219745765L; //the computed value of the first version
     private static final int WALL = 1, TILE = 0;
-    private int[][] grid;
+    /**
+     * the serialized form is the one of the first version - the grid as int[][] (1 for WALL, 0 for TILE),
+     * so saved mazes and peers of any version can read each other, whatever grid storage is used.
+     * writing builds the whole int[][] in memory, 32 times the size of the bit grid - a 20,000x20,000 mapped or tiled maze
+     * becomes 1.6GB, so big mazes are sent compressed (SolveProtocol) and kept in files with save/open.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("grid", int[][].class),
+            new ObjectStreamField("startPosition", Position.class),
+            new ObjectStreamField("goalPosition", Position.class)};
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_MAPPED_LENGTH = 16 << 20; //smaller maze files are read into memory and not mapped
+    private IMazeGrid grid;
     private Position startPosition, goalPosition;
 
     /**
@@ -21,7 +41,7 @@ public class Maze implements Serializable {
     public Maze(int rows, int columns) throws IllegalArgumentException {
         if (columns < 2 || rows < 2)
             throw new IllegalArgumentException("one or more of the arguments are < 2");
-        this.grid = new int[rows][columns];
+        this.grid = new BitMazeGrid(rows, columns);
         this.startPosition = new Position(0, 0);
         this.goalPosition = new Position(rows - 1, columns - 1);
     }
@@ -34,6 +54,20 @@ public class Maze implements Serializable {
      * @param goalPosition  maze goal position
      */
     public Maze(int[][] grid, Position startPosition, Position goalPosition) {
+        this(new ArrayMazeGrid(grid), startPosition, goalPosition);
+    }
+
+    /**
+     * constructor
+     *
+     * @param grid          grid storage to use for the maze (BitMazeGrid, ArrayMazeGrid...)
+     * @param startPosition maze start position
+     * @param goalPosition  maze goal position
+     * @throws IllegalArgumentException grid == null
+     */
+    public Maze(IMazeGrid grid, Position startPosition, Position goalPosition) throws IllegalArgumentException {
+        if (grid == null)
+            throw new IllegalArgumentException("cant handle null grid");
         this.grid = grid;
         this.startPosition = startPosition;
         this.goalPosition = goalPosition;
@@ -41,53 +75,123 @@ public class Maze implements Serializable {
 
     /**
      * constructor
-     * 0,1-row size. 2,3-column size. 4,5-start position row. 6,7-start position column.
-     * 8,9-goal position row. 10,11-goal position column. 12+ -the maze
+     * the meta data is a MazeHeader (legacy 12 bytes or versioned), then a byte for every cell.
      *
-     * @param bytes in the format. first 12 cells using base 127
+     * @param bytes in the format of toByteArray
      * @throws IllegalArgumentException the array was given not in the right format.
      */
     public Maze(byte[] bytes) throws IllegalArgumentException {
         try {
-            this.grid = new int[base127ToDecimal(bytes[0], bytes[1])][base127ToDecimal(bytes[2], bytes[3])];
-            this.startPosition = new Position(base127ToDecimal(bytes[4], bytes[5]), base127ToDecimal(bytes[6], bytes[7]));
-            this.goalPosition = new Position(base127ToDecimal(bytes[8], bytes[9]), base127ToDecimal(bytes[10], bytes[11]));
-
-            int counter = 12;
-            for (int i = 0; i < this.grid.length; i++)
-                for (int j = 0; j < this.grid[0].length; j++)
-                    this.grid[i][j] = bytes[counter++];
+            MazeHeader header = MazeHeader.read(bytes, 0);
+            this.grid = new BitMazeGrid(header.getRows(), header.getColumns());
+            this.startPosition = header.getStartPosition();
+            this.goalPosition = header.getGoalPosition();
+
+            int counter = header.size(), rows = this.getRowsSize(), columns = this.getColumnsSize();
+            for (int i = 0; i < rows; i++)
+                for (int j = 0; j < columns; j++)
+                    if (bytes[counter++] == WALL)
+                        this.grid.setWall(i, j, true);
         } catch (IndexOutOfBoundsException e) {
             throw new IllegalArgumentException("the array was given not in the right format");
         }
     }
 
     /**
-     * concatenate tro bytes Arrays
+     * create a maze from its MyCompressorOutputStream form without decompressing it to a byte per cell.
+     * the packed cells are copied straight into the bits of the grid.
      *
-     * @param a first array to concatenate
-     * @param b second array to concatenate
-     * @return concatenate array
-     */
-    private static byte[] concatenateArrays(byte[] a, byte[] b) {
-        byte[] result = new byte[a.length + b.length];
-        for (int i = 0; i < a.length; i++)
-            result[i] = a[i];
-        for (int i = 0; i < b.length; i++)
-            result[a.length + i] = b[i];
-        return result;
+     * @param compressed maze compressed by MyCompressorOutputStream
+     * @return the maze
+     * @throws IllegalArgumentException the array was given not in the right format.
+     */
+    public static Maze fromCompressed(byte[] compressed) throws IllegalArgumentException {
+        MazeHeader header = MazeHeader.read(compressed, 0);
+        BitMazeGrid grid = BitMazeGrid.fromPacked(header.getRows(), header.getColumns(), compressed, header.size());
+        return new Maze(grid, header.getStartPosition(), header.getGoalPosition());
     }
 
     /**
-     * transfer base 127 into decimal number.
-     * maximum decimal number 16,256
+     * open a maze file that was written by save.
+     * the packed cells of a big maze are mapped to memory and read only when asked for, so a huge maze opens instantly.
+     * such a maze is read-only - changing its walls throws UnsupportedOperationException.
+     * the packed cells of smaller mazes (under MIN_MAPPED_LENGTH bytes) are read into memory, so no mapping keeps the file in use.
      *
-     * @param lsb the lsb of the 127 base number
-     * @param msb the msb of the 127 base number
-     * @return decimal number
+     * @param file maze file
+     * @return the maze
+     * @throws IOException failed to read the file, or it is not a maze file
      */
-    private static int base127ToDecimal(byte lsb, byte msb) {
-        return msb * 127 + lsb;
+    public static Maze open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer headerBytes = ByteBuffer.allocate(MazeHeader.MAX_SIZE);
+            while (headerBytes.hasRemaining())
+                if (channel.read(headerBytes) < 0)
+                    break;
+            MazeHeader header = MazeHeader.read(Arrays.copyOf(headerBytes.array(), headerBytes.position()), 0);
+            long packedLength = (header.getCellsCount() + 7) >>> 3;
+            if (channel.size() < header.size() + packedLength)
+                throw new IOException("maze file is too short");
+            if (packedLength > Integer.MAX_VALUE)
+                throw new IOException("maze is too big to map");
+            if (packedLength < MIN_MAPPED_LENGTH) {
+                ByteBuffer packed = ByteBuffer.allocate((int) packedLength);
+                while (packed.hasRemaining())
+                    if (channel.read(packed, header.size() + packed.position()) < 0)
+                        throw new IOException("maze file is too short");
+                return new Maze(BitMazeGrid.fromPacked(header.getRows(), header.getColumns(), packed.array(), 0),
+                        header.getStartPosition(), header.getGoalPosition());
+            }
+            ByteBuffer packed = channel.map(FileChannel.MapMode.READ_ONLY, header.size(), packedLength);
+            return new Maze(new MappedMazeGrid(header.getRows(), header.getColumns(), packed), header.getStartPosition(), header.getGoalPosition());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("not a maze file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * save the maze to a file that open can map - the MazeHeader and then the cells packed 8 in a byte
+     * (the MyCompressorOutputStream format). the grid is written a word at a time, without a byte per cell array.
+     * the file is written next to the target and then moved over it, so a maze that is mapped from the target stays valid.
+     * when the file system can't move atomically a plain replace is used. Windows can't replace a file that is still mapped
+     * (a big maze that was opened from it) - then the save fails and the target is not changed.
+     * the temporary file never stays behind.
+     *
+     * @param file file to save to
+     * @throws IOException failed to write or replace the file
+     */
+    public void save(File file) throws IOException {
+        MazeHeader header = new MazeHeader(this.getRowsSize(), this.getColumnsSize(), this.startPosition, this.goalPosition);
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(FILE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.position(header.write(buffer.array(), 0));
+                long packedLeft = ((long) this.getRowsSize() * this.getColumnsSize() + 7) >>> 3;
+                for (int i = 0; i < this.grid.getWordsCount(); i++) {
+                    if (buffer.remaining() < Long.BYTES)
+                        writeFully(channel, buffer);
+                    long word = this.grid.getWord(i);
+                    for (int j = 0; j < Long.BYTES && packedLeft > 0; j++, packedLeft--) //the last word is cut to the packed length
+                        buffer.put((byte) (word >>> (j << 3)));
+                }
+                writeFully(channel, buffer);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) { //atomic move is not supported here
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp); //already moved unless something failed
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
     }
 
     /**
@@ -113,7 +217,7 @@ public class Maze implements Serializable {
                     System.out.print(GREEN + " S" + RESET);
                 else if (this.goalPosition.equals(new Position(i, j)))
                     System.out.print(RED + " E" + RESET);
-                else if (this.grid[i][j] == 1)
+                else if (this.grid.isWall(i, j))
                     System.out.print(BLACK_BACKGROUND + "  " + RESET);
                 else
                     System.out.print("  ");
@@ -134,7 +238,7 @@ public class Maze implements Serializable {
                 else if (this.goalPosition.equals(new Position(i, j)))
                     System.out.print(" E");
                 else
-                    System.out.print(" " + this.grid[i][j]);
+                    System.out.print(" " + (this.grid.isWall(i, j) ? WALL : TILE));
             }
             System.out.println(" }");
         }
@@ -170,7 +274,7 @@ public class Maze implements Serializable {
                     System.out.print(RED + " E" + RESET);
                 else if (trace.contains(position))
                     System.out.print(YELLOW_BACKGROUND + "  " + RESET);
-                else if (this.grid[i][j] == 1)
+                else if (this.grid.isWall(i, j))
                     System.out.print(WHITE_BACKGROUND + "  " + RESET);
                 else
                     System.out.print("  ");
@@ -183,7 +287,11 @@ public class Maze implements Serializable {
      * @return copy of the maze grid
      */
     public int[][] getGrid() {
-        return grid.clone();
+        int[][] copy = new int[this.getRowsSize()][this.getColumnsSize()];
+        for (int i = 0; i < copy.length; i++)
+            for (int j = 0; j < copy[0].length; j++)
+                copy[i][j] = this.grid.isWall(i, j) ? WALL : TILE;
+        return copy;
     }
 
     /**
@@ -230,7 +338,27 @@ public class Maze implements Serializable {
      */
     public boolean positionOfWall(Position position) {
         return this.validMazePosition(position) &&
-                this.grid[position.getRowIndex()][position.getColumnIndex()] == WALL;
+                this.grid.isWall(position.getRowIndex(), position.getColumnIndex());
+    }
+
+    /**
+     * @param row    row index of the position
+     * @param column column index of the position
+     * @return true if it contains WALL otherwise false. invalid position will return false too.
+     */
+    public boolean positionOfWall(int row, int column) {
+        return 0 <= row && row < this.getRowsSize() && 0 <= column && column < this.getColumnsSize() &&
+                this.grid.isWall(row, column);
+    }
+
+    /**
+     * @param row    row index of the position
+     * @param column column index of the position
+     * @return true if it contains TILE otherwise false. invalid position will return false too.
+     */
+    public boolean positionOfTile(int row, int column) {
+        return 0 <= row && row < this.getRowsSize() && 0 <= column && column < this.getColumnsSize() &&
+                !this.grid.isWall(row, column);
     }
 
     /**
@@ -239,25 +367,21 @@ public class Maze implements Serializable {
      */
     public boolean positionOfTile(Position position) {
         return this.validMazePosition(position) &&
-                this.grid[position.getRowIndex()][position.getColumnIndex()] == TILE;
+                !this.grid.isWall(position.getRowIndex(), position.getColumnIndex());
     }
 
     /**
      * remove all walls from the maze
      */
     public void cleanAllWalls() {
-        for (int i = 0; i < grid.length; i++)
-            for (int j = 0; j < grid[0].length; j++)
-                this.grid[i][j] = TILE;
+        this.grid.fill(false);
     }
 
     /**
      * add a wall in every tile of the maze
      */
     public void makeAllWalls() {
-        for (int i = 0; i < grid.length; i++)
-            for (int j = 0; j < grid[0].length; j++)
-                this.grid[i][j] = WALL;
+        this.grid.fill(true);
     }
 
     /**
@@ -268,7 +392,7 @@ public class Maze implements Serializable {
      */
     public void addWall(Position position) {
         if (this.validMazePosition(position))
-            this.grid[position.getRowIndex()][position.getColumnIndex()] = WALL;
+            this.grid.setWall(position.getRowIndex(), position.getColumnIndex(), true);
     }
 
     /**
@@ -279,21 +403,21 @@ public class Maze implements Serializable {
      */
     public void removeWall(Position position) {
         if (this.validMazePosition(position))
-            this.grid[position.getRowIndex()][position.getColumnIndex()] = TILE;
+            this.grid.setWall(position.getRowIndex(), position.getColumnIndex(), false);
     }
 
     /**
      * @return number of rows in the maze
      */
     public int getRowsSize() {
-        return grid.length;
+        return this.grid.getRowsSize();
     }
 
     /**
      * @return number of columns in the maze
      */
     public int getColumnsSize() {
-        return grid[0].length;
+        return this.grid.getColumnsSize();
     }
 
     /**
@@ -408,7 +532,16 @@ public class Maze implements Serializable {
      * can be a TILE or a WALL
      */
     public void generateStartPosition() {
-        Random random = new Random();
+        generateStartPosition(new Random());
+    }
+
+    /**
+     * randomly select a new starting position for the maze
+     * can be a TILE or a WALL
+     *
+     * @param random source of the random choices
+     */
+    public void generateStartPosition(Random random) {
         int side = random.nextInt(4);
         switch (side) {
             case 0 -> this.startPosition = new Position(0, random.nextInt(this.getColumnsSize())); //UP
@@ -426,19 +559,29 @@ public class Maze implements Serializable {
      * @throws RuntimeException no possible GoalPositions in maze boarders.
      */
     public void generateGoalPosition() {
-        Random random = new Random();
+        generateGoalPosition(new Random());
+    }
+
+    /**
+     * randomly select a new goal position for the maze.
+     * this position will be different from the starting point.
+     *
+     * @param random source of the random choices
+     * @throws RuntimeException no possible GoalPositions in maze boarders.
+     */
+    public void generateGoalPosition(Random random) {
         ArrayList<Position> possibleGoals = new ArrayList<>();
         int columnsSize = this.getColumnsSize(), rowSize = this.getRowsSize();
         for (int i = 0; i < columnsSize; i++) {
-            if (this.grid[0][i] == TILE)
+            if (!this.grid.isWall(0, i))
                 possibleGoals.add(new Position(0, i));
-            if (this.grid[rowSize - 1][i] == TILE)
+            if (!this.grid.isWall(rowSize - 1, i))
                 possibleGoals.add(new Position(rowSize - 1, i));
         }
         for (int i = 0; i < rowSize; i++) {
-            if (this.grid[i][0] == TILE)
+            if (!this.grid.isWall(i, 0))
                 possibleGoals.add(new Position(i, 0));
-            if (this.grid[i][columnsSize - 1] == TILE)
+            if (!this.grid.isWall(i, columnsSize - 1))
                 possibleGoals.add(new Position(i, columnsSize - 1));
         }
         if (possibleGoals.size() <= 1)
@@ -450,44 +593,53 @@ public class Maze implements Serializable {
     }
 
     /**
-     * meta data:
-     * 0,1-row size. 2,3-column size. 4,5-start position row. 6,7-start position column.
-     * 8,9-goal position row. 10,11-goal position column.
+     * meta data: MazeHeader - the legacy 12 bytes when the sizes fit in it, otherwise the versioned header.
      *
-     * @return maze as an array of bytes, first 12 cells contains the meta data
+     * @return maze as an array of bytes, the meta data and then a cell for every position
      */
     public byte[] toByteArray() {
-        byte[] metaData = concatenateArrays(decimalToBase127(this.getRowsSize()), decimalToBase127(this.getColumnsSize()));
-        byte[] metaStart = concatenateArrays(decimalToBase127(this.getStartPosition().getRowIndex()),
-                decimalToBase127(this.getStartPosition().getColumnIndex()));
-        byte[] metaGoal = concatenateArrays(decimalToBase127(this.getGoalPosition().getRowIndex()),
-                decimalToBase127(this.getGoalPosition().getColumnIndex()));
-        metaData = concatenateArrays(metaData, metaStart);
-        metaData = concatenateArrays(metaData, metaGoal);
-
-        byte[] gridAsArray = new byte[this.getRowsSize() * this.getColumnsSize()];
-        int counter = 0;
+        MazeHeader header = new MazeHeader(this.getRowsSize(), this.getColumnsSize(), this.startPosition, this.goalPosition);
+        byte[] result = new byte[header.size() + this.getRowsSize() * this.getColumnsSize()];
+        int counter = header.write(result, 0);
         for (int i = 0; i < this.getRowsSize(); i++) {
             for (int j = 0; j < this.getColumnsSize(); j++) {
-                gridAsArray[counter++] = (byte) this.grid[i][j];
+                result[counter++] = (byte) (this.grid.isWall(i, j) ? WALL : TILE);
             }
         }
+        return result;
+    }
 
-        return concatenateArrays(metaData, gridAsArray);
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("grid", this.getGrid());
+        fields.put("startPosition", this.startPosition);
+        fields.put("goalPosition", this.goalPosition);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        int[][] cells = (int[][]) fields.get("grid", null);
+        if (cells == null || cells.length == 0 || cells[0] == null)
+            throw new InvalidObjectException("maze without a grid");
+        BitMazeGrid bitGrid = new BitMazeGrid(cells.length, cells[0].length);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == null || cells[i].length != cells[0].length)
+                throw new InvalidObjectException("maze grid rows are not the same size");
+            for (int j = 0; j < cells[i].length; j++)
+                if (cells[i][j] == WALL)
+                    bitGrid.setWall(i, j, true);
+        }
+        this.grid = bitGrid;
+        this.startPosition = (Position) fields.get("startPosition", null);
+        this.goalPosition = (Position) fields.get("goalPosition", null);
     }
 
     /**
-     * transfer decimal number into base 127.
-     * maximum number 16,256
-     *
-     * @param num number to transfer (maximum 16,256)
-     * @return 2 cells, 0-lsb 1-msb
+     * @return 128 bit hash of the maze content (size, start, goal and walls)
      */
-    private byte[] decimalToBase127(int num) {
-        byte[] result = new byte[2];
-        result[0] = (byte) (num % 127);
-        result[1] = (byte) ((num / 127) % 127);
-        return result;
+    public MazeHash contentHash() {
+        return MazeHash.of(this.grid, this.startPosition, this.goalPosition);
     }
 
     @Override
@@ -496,18 +648,17 @@ public class Maze implements Serializable {
         if (o == null || getClass() != o.getClass()) return false;
 
         Backend.algorithms.mazeGenerators.Maze maze = (Backend.algorithms.mazeGenerators.Maze) o;
-        return Arrays.equals(this.toByteArray(), maze.toByteArray());
+        if (this.getRowsSize() != maze.getRowsSize() || this.getColumnsSize() != maze.getColumnsSize()
+                || !this.startPosition.equals(maze.startPosition) || !this.goalPosition.equals(maze.goalPosition))
+            return false;
+        for (int i = 0; i < this.grid.getWordsCount(); i++)
+            if (this.grid.getWord(i) != maze.grid.getWord(i))
+                return false;
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return hashArray(this.toByteArray());
-    }
-
-    private int hashArray(byte[] array) {
-        int counter = 0;
-        if (array != null)
-            for (byte b : array) counter += b;
-        return counter;
+        return this.contentHash().hashCode();
     }
 }
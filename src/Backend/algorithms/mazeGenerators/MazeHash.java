@@ -0,0 +1,119 @@
+package Backend.algorithms.mazeGenerators;
+
+/**
+ * 128 bit content hash of a maze - MurmurHash3 (x64, 128 bit) of the maze size, start position,
+ * goal position and the row-major bitset of the grid.
+ * two equal mazes always have the same hash, no matter how their grid is stored.
+ */
+public final class MazeHash {
+    private static final long C1 = 0x87c37b91114253d5L, C2 = 0x4cf5ad432745937fL;
+    private final long high, low;
+
+    /**
+     * constructor
+     *
+     * @param high the high 64 bits of the hash
+     * @param low  the low 64 bits of the hash
+     */
+    public MazeHash(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * @param grid          grid of the maze
+     * @param startPosition start position of the maze
+     * @param goalPosition  goal position of the maze
+     * @return content hash of the maze
+     */
+    static MazeHash of(IMazeGrid grid, Position startPosition, Position goalPosition) {
+        int words = grid.getWordsCount();
+        long h1 = 0, h2 = 0;
+        //first block - the meta data
+        long k1 = ((long) grid.getRowsSize() << 32) | (grid.getColumnsSize() & 0xFFFFFFFFL);
+        long k2 = ((long) startPosition.getRowIndex() << 32) | (startPosition.getColumnIndex() & 0xFFFFFFFFL);
+        h1 = mixH1(h1, h2, k1);
+        h2 = mixH2(h1, h2, k2);
+        //the goal position and the grid words, two longs in every block
+        long pending = ((long) goalPosition.getRowIndex() << 32) | (goalPosition.getColumnIndex() & 0xFFFFFFFFL);
+        int i = 0;
+        for (; i < words; i += 2) {
+            if (i + 1 == words)
+                break;
+            k1 = pending;
+            k2 = grid.getWord(i);
+            pending = grid.getWord(i + 1);
+            h1 = mixH1(h1, h2, k1);
+            h2 = mixH2(h1, h2, k2);
+        }
+        //tail - one or two longs left
+        k1 = pending;
+        k2 = i < words ? grid.getWord(i) : 0;
+        long length = 24L + 8L * words;
+        h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+        h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new MazeHash(h1, h2);
+    }
+
+    private static long mixH1(long h1, long h2, long k1) {
+        h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+        h1 = Long.rotateLeft(h1, 27) + h2;
+        return h1 * 5 + 0x52dce729;
+    }
+
+    private static long mixH2(long h1, long h2, long k2) {
+        h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+        h2 = Long.rotateLeft(h2, 31) + h1;
+        return h2 * 5 + 0x38495ab5;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * @return the high 64 bits of the hash
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * @return the low 64 bits of the hash
+     */
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MazeHash mazeHash = (MazeHash) o;
+        return high == mazeHash.high && low == mazeHash.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -0,0 +1,192 @@
+package Backend.algorithms.mazeGenerators;
+
+/**
+ * meta data of a maze in its byte array form (Maze.toByteArray and the compressed streams).
+ * legacy header - 12 bytes, two base 127 bytes (lsb, msb) for each value, every byte is between 0-126.
+ * 0,1-row size. 2,3-column size. 4,5-start position row. 6,7-start position column. 8,9-goal position row. 10,11-goal position column.
+ * versioned header - 26 bytes, the first byte has the high bit set so it is never a legacy header.
+ * 0-magic. 1-version. 2-25 - row size, column size, start row, start column, goal row, goal column as 32 bit big-endian ints.
+ * the legacy header is written when all the values fit in it (up to 16,128), so small mazes keep their old bytes.
+ */
+public final class MazeHeader {
+    public static final byte MAGIC = (byte) 0xD7;
+    public static final byte VERSION = 1;
+    public static final int LEGACY_SIZE = 12, VERSIONED_SIZE = 26;
+    public static final int MAX_SIZE = VERSIONED_SIZE;
+    private static final int MAX_LEGACY_VALUE = 127 * 127 - 1;
+    private final int rows, columns, startRow, startColumn, goalRow, goalColumn;
+    private final boolean legacy; //format of the header
+
+    /**
+     * constructor
+     *
+     * @param rows          number of rows
+     * @param columns       number of columns
+     * @param startPosition maze start position
+     * @param goalPosition  maze goal position
+     * @throws IllegalArgumentException a negative value
+     */
+    public MazeHeader(int rows, int columns, Position startPosition, Position goalPosition) throws IllegalArgumentException {
+        this(rows, columns, startPosition.getRowIndex(), startPosition.getColumnIndex(), goalPosition.getRowIndex(), goalPosition.getColumnIndex(),
+                fitsLegacy(rows, columns, startPosition.getRowIndex(), startPosition.getColumnIndex(), goalPosition.getRowIndex(), goalPosition.getColumnIndex()));
+    }
+
+    private MazeHeader(int rows, int columns, int startRow, int startColumn, int goalRow, int goalColumn, boolean legacy) throws IllegalArgumentException {
+        if (rows < 0 || columns < 0 || startRow < 0 || startColumn < 0 || goalRow < 0 || goalColumn < 0)
+            throw new IllegalArgumentException("maze header values can't be negative");
+        this.rows = rows;
+        this.columns = columns;
+        this.startRow = startRow;
+        this.startColumn = startColumn;
+        this.goalRow = goalRow;
+        this.goalColumn = goalColumn;
+        this.legacy = legacy;
+    }
+
+    /**
+     * @param first first byte of a header
+     * @return size of the header that starts with the given byte
+     */
+    public static int sizeOf(byte first) {
+        return first == MAGIC ? VERSIONED_SIZE : LEGACY_SIZE;
+    }
+
+    /**
+     * read a header in any of the formats
+     *
+     * @param bytes  array that contains the header
+     * @param offset first byte of the header
+     * @return the header
+     * @throws IllegalArgumentException the array is too short, the header has unknown version,
+     *                                  or the start or goal position is outside the maze
+     */
+    public static MazeHeader read(byte[] bytes, int offset) throws IllegalArgumentException {
+        if (offset < 0 || offset >= bytes.length || bytes.length - offset < sizeOf(bytes[offset]))
+            throw new IllegalArgumentException("the array is too short for a maze header");
+        MazeHeader header;
+        if (bytes[offset] != MAGIC)
+            header = new MazeHeader(base127ToDecimal(bytes, offset), base127ToDecimal(bytes, offset + 2),
+                    base127ToDecimal(bytes, offset + 4), base127ToDecimal(bytes, offset + 6),
+                    base127ToDecimal(bytes, offset + 8), base127ToDecimal(bytes, offset + 10), true);
+        else if (bytes[offset + 1] != VERSION)
+            throw new IllegalArgumentException("unsupported maze header version " + bytes[offset + 1]);
+        else
+            header = new MazeHeader(readInt(bytes, offset + 2), readInt(bytes, offset + 6), readInt(bytes, offset + 10),
+                    readInt(bytes, offset + 14), readInt(bytes, offset + 18), readInt(bytes, offset + 22), false);
+        if (header.startRow >= header.rows || header.startColumn >= header.columns
+                || header.goalRow >= header.rows || header.goalColumn >= header.columns)
+            throw new IllegalArgumentException("the start or goal position is outside the maze");
+        return header;
+    }
+
+    /**
+     * @return true for the legacy 12 bytes format, false for the versioned format
+     */
+    public boolean isLegacy() {
+        return this.legacy;
+    }
+
+    /**
+     * @return number of bytes of this header - LEGACY_SIZE or VERSIONED_SIZE
+     */
+    public int size() {
+        return this.isLegacy() ? LEGACY_SIZE : VERSIONED_SIZE;
+    }
+
+    /**
+     * write the header in its format
+     *
+     * @param target array to write to
+     * @param offset first byte to write
+     * @return number of bytes written
+     * @throws IllegalArgumentException the array is too short
+     */
+    public int write(byte[] target, int offset) throws IllegalArgumentException {
+        if (offset < 0 || target.length - offset < this.size())
+            throw new IllegalArgumentException("the array is too short for the maze header");
+        if (this.isLegacy()) {
+            decimalToBase127(this.rows, target, offset);
+            decimalToBase127(this.columns, target, offset + 2);
+            decimalToBase127(this.startRow, target, offset + 4);
+            decimalToBase127(this.startColumn, target, offset + 6);
+            decimalToBase127(this.goalRow, target, offset + 8);
+            decimalToBase127(this.goalColumn, target, offset + 10);
+            return LEGACY_SIZE;
+        }
+        target[offset] = MAGIC;
+        target[offset + 1] = VERSION;
+        writeInt(this.rows, target, offset + 2);
+        writeInt(this.columns, target, offset + 6);
+        writeInt(this.startRow, target, offset + 10);
+        writeInt(this.startColumn, target, offset + 14);
+        writeInt(this.goalRow, target, offset + 18);
+        writeInt(this.goalColumn, target, offset + 22);
+        return VERSIONED_SIZE;
+    }
+
+    /**
+     * @return number of cells in the maze - rows * columns, as long so big mazes don't overflow
+     */
+    public long getCellsCount() {
+        return (long) this.rows * this.columns;
+    }
+
+    /**
+     * @return number of rows of the maze
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return number of columns of the maze
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @return maze start position
+     */
+    public Position getStartPosition() {
+        return new Position(this.startRow, this.startColumn);
+    }
+
+    /**
+     * @return maze goal position
+     */
+    public Position getGoalPosition() {
+        return new Position(this.goalRow, this.goalColumn);
+    }
+
+    private static boolean fitsLegacy(int... values) {
+        for (int value : values)
+            if (value > MAX_LEGACY_VALUE)
+                return false;
+        return true;
+    }
+
+    /**
+     * transfer base 127 into decimal number.
+     * maximum decimal number 16,128
+     */
+    private static int base127ToDecimal(byte[] bytes, int offset) {
+        return bytes[offset + 1] * 127 + bytes[offset];
+    }
+
+    private static void decimalToBase127(int num, byte[] target, int offset) {
+        target[offset] = (byte) (num % 127);
+        target[offset + 1] = (byte) (num / 127);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void writeInt(int num, byte[] target, int offset) {
+        target[offset] = (byte) (num >>> 24);
+        target[offset + 1] = (byte) (num >>> 16);
+        target[offset + 2] = (byte) (num >>> 8);
+        target[offset + 3] = (byte) num;
+    }
+}
@@ -10,13 +10,14 @@ public class MyMazeGenerator extends AMazeGenerator {
      *
      * @param rows    number of rows of the maze to generate
      * @param columns number of columns of the maze to generate
+     * @param random  source of the random choices
      * @return generated maze
      */
     @Override
-    public Maze generate(int rows, int columns) {
+    public Maze generate(int rows, int columns, Random random) {
         if (rows == 2 || columns == 2)
-            return primsMazeGenerator(rows, columns);
-        return DFSMazeGenerator(rows, columns);
+            return primsMazeGenerator(rows, columns, random);
+        return DFSMazeGenerator(rows, columns, random);
     }
 
     /**
@@ -33,15 +34,15 @@ public class MyMazeGenerator extends AMazeGenerator {
      *
      * @param rows    number of rows of the maze to generate
      * @param columns number of columns of the maze to generate
+     * @param random  source of the random choices
      * @return generated maze
      */
-    private Maze primsMazeGenerator(int rows, int columns) {
-        Random random = new Random();
+    private Maze primsMazeGenerator(int rows, int columns, Random random) {
         Maze maze = new Maze(rows, columns);
         ArrayList<Position> wallsList;
         ArrayList<Position> neighbourTiles;
         maze.makeAllWalls(); //1
-        maze.generateStartPosition();
+        maze.generateStartPosition(random);
         Position currentPosition = maze.getStartPosition();
         maze.removeWall(currentPosition);
         wallsList = new ArrayList<>(maze.getNeighbourWalls(currentPosition)); //2
@@ -54,7 +55,7 @@ public class MyMazeGenerator extends AMazeGenerator {
             }
         }
 
-        maze.generateGoalPosition();
+        maze.generateGoalPosition(random);
         return maze;
     }
 
@@ -72,15 +73,15 @@ public class MyMazeGenerator extends AMazeGenerator {
      *
      * @param rows    number of rows of the maze to generate
      * @param columns number of columns of the maze to generate
+     * @param random  source of the random choices
      * @return generated maze
      */
-    private Maze DFSMazeGenerator(int rows, int columns) {
-        Random random = new Random();
+    private Maze DFSMazeGenerator(int rows, int columns, Random random) {
         Maze maze = new Maze(rows, columns);
         Stack<Position> neighbours = new Stack<>();
         ArrayList<Position> neighbourWalls;
         maze.makeAllWalls();
-        maze.generateStartPosition();
+        maze.generateStartPosition(random);
         Position currentPosition = maze.getStartPosition();
         maze.removeWall(currentPosition);
         neighbours.push(currentPosition);
@@ -96,7 +97,7 @@ public class MyMazeGenerator extends AMazeGenerator {
             }
         }
 
-        maze.generateGoalPosition();
+        maze.generateGoalPosition(random);
         return maze;
     }
 }
@@ -15,15 +15,15 @@ public class SimpleMazeGenerator extends AMazeGenerator {
      *
      * @param rows    number of rows of the maze to generate
      * @param columns number of columns of the maze to generate
+     * @param random  source of the random choices
      * @return Simple 2D maze
      */
     @Override
-    public Maze generate(int rows, int columns) {
-        Random random = new Random();
+    public Maze generate(int rows, int columns, Random random) {
         Maze maze = new Maze(rows, columns);
         Position currentPosition;
-        maze.generateStartPosition();
-        maze.generateGoalPosition();
+        maze.generateStartPosition(random);
+        maze.generateGoalPosition(random);
         maze.makeAllWalls();
         currentPosition = maze.getStartPosition();
         maze.removeWall(currentPosition);
@@ -0,0 +1,278 @@
+package Backend.algorithms.mazeGenerators;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * maze grid for mazes bigger than the memory - the cells are kept in a file as tiles of 256x256 bits,
+ * and only the recently used tiles are kept in memory (LRU). changed tiles are written back when they are evicted,
+ * on flush and on close.
+ * file: [magic - 4 bytes][rows - 4 bytes][columns - 4 bytes][tile side - 4 bytes] then the tiles in row-major order,
+ * every tile is 256 rows of 4 little-endian longs, bit i of a row is the cell (tile column * 256 + i).
+ * the file is not read or written before a cell of the tile is used, tiles that never written are all TILEs.
+ * the grid is not serialized itself - serializing its Maze builds every cell as an int[][] in memory (see Maze.writeObject),
+ * so an out-of-core maze must be saved with Maze.save or sent compressed, not serialized.
+ */
+public class TiledMazeGrid implements IMazeGrid, Closeable {
+    public static final int MAGIC = 0x4D5A544C; //"MZTL"
+    public static final int TILE_SIDE = 256;
+    public static final int DEFAULT_CACHED_TILES = 64; //8KB per tile
+    private static final int HEADER_SIZE = 16, TILE_SHIFT = 8, TILE_MASK = TILE_SIDE - 1;
+    private static final int WORDS_PER_TILE_ROW = TILE_SIDE / 64, TILE_BYTES = TILE_SIDE * TILE_SIDE / 8;
+    private final int rows, columns, tileColumns, cachedTiles;
+    private final FileChannel channel;
+    private final LinkedHashMap<Long, Tile> tiles; //access order - the eldest is the least recently used
+    private final ByteBuffer transfer = ByteBuffer.allocate(TILE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * constructor - create a new grid file, all the cells are TILEs
+     *
+     * @param file        file to keep the tiles in, overwritten if exists
+     * @param rows        number of rows
+     * @param columns     number of columns
+     * @param cachedTiles maximum number of tiles in memory
+     * @throws IOException              failed to create the file
+     * @throws IllegalArgumentException negative size or less than one cached tile
+     */
+    public TiledMazeGrid(File file, int rows, int columns, int cachedTiles) throws IOException, IllegalArgumentException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), rows, columns, cachedTiles);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(rows).putInt(columns).putInt(TILE_SIDE).flip();
+        while (header.hasRemaining())
+            this.channel.write(header, header.position());
+    }
+
+    /**
+     * constructor - create a new grid file with DEFAULT_CACHED_TILES tiles in memory, all the cells are TILEs
+     *
+     * @param file    file to keep the tiles in, overwritten if exists
+     * @param rows    number of rows
+     * @param columns number of columns
+     * @throws IOException              failed to create the file
+     * @throws IllegalArgumentException negative size
+     */
+    public TiledMazeGrid(File file, int rows, int columns) throws IOException, IllegalArgumentException {
+        this(file, rows, columns, DEFAULT_CACHED_TILES);
+    }
+
+    private TiledMazeGrid(FileChannel channel, int rows, int columns, int cachedTiles) throws IllegalArgumentException {
+        if (rows < 0 || columns < 0 || cachedTiles < 1)
+            throw new IllegalArgumentException("grid size can't be negative and at least one tile must be cached");
+        this.rows = rows;
+        this.columns = columns;
+        this.tileColumns = (columns + TILE_MASK) >>> TILE_SHIFT;
+        this.channel = channel;
+        this.cachedTiles = cachedTiles;
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * open a grid file that was created by TiledMazeGrid
+     *
+     * @param file        the grid file
+     * @param cachedTiles maximum number of tiles in memory
+     * @return the grid
+     * @throws IOException failed to open the file, or it is not a grid file
+     */
+    public static TiledMazeGrid open(File file, int cachedTiles) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("grid file is too short");
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException("not a tiled maze grid file");
+            int rows = header.getInt(), columns = header.getInt();
+            if (header.getInt() != TILE_SIDE)
+                throw new IOException("unsupported tile side");
+            return new TiledMazeGrid(channel, rows, columns, cachedTiles);
+        } catch (IOException | IllegalArgumentException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage());
+        }
+    }
+
+    @Override
+    public int getRowsSize() {
+        return this.rows;
+    }
+
+    @Override
+    public int getColumnsSize() {
+        return this.columns;
+    }
+
+    @Override
+    public synchronized boolean isWall(int row, int column) {
+        long word = tile(row, column).words[(row & TILE_MASK) * WORDS_PER_TILE_ROW + ((column & TILE_MASK) >>> 6)];
+        return (word & (1L << column)) != 0;
+    }
+
+    @Override
+    public synchronized void setWall(int row, int column, boolean wall) {
+        Tile tile = tile(row, column);
+        int index = (row & TILE_MASK) * WORDS_PER_TILE_ROW + ((column & TILE_MASK) >>> 6);
+        if (wall)
+            tile.words[index] |= 1L << column;
+        else
+            tile.words[index] &= ~(1L << column);
+        tile.dirty = true;
+    }
+
+    /**
+     * write the same value to every tile in the file, the cached tiles are dropped
+     *
+     * @param wall true to fill with WALLs, false to fill with TILEs
+     * @throws UncheckedIOException failed to write to the file
+     */
+    @Override
+    public synchronized void fill(boolean wall) {
+        this.tiles.clear();
+        long tilesCount = (long) ((this.rows + TILE_MASK) >>> TILE_SHIFT) * this.tileColumns;
+        try {
+            if (!wall) { //tiles after the end of the file are all TILEs
+                this.channel.truncate(HEADER_SIZE);
+                return;
+            }
+            long[] words = new long[TILE_BYTES / Long.BYTES];
+            Arrays.fill(words, -1L);
+            for (long i = 0; i < tilesCount; i++)
+                writeTile(i, words);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized long getWord(int index) {
+        long cells = (long) this.rows * this.columns, from = (long) index << 6, to = Math.min(from + 64, cells);
+        long word = 0;
+        for (long cell = from; cell < to; ) { //a part of the word in one row of one tile
+            int row = (int) (cell / this.columns), column = (int) (cell % this.columns);
+            int count = (int) Math.min(to - cell, Math.min(this.columns - column, TILE_SIDE - (column & TILE_MASK)));
+            word |= rowBits(row, column, count) << (cell - from);
+            cell += count;
+        }
+        return word;
+    }
+
+    /**
+     * write the changed tiles to the file
+     *
+     * @throws IOException failed to write to the file
+     */
+    public synchronized void flush() throws IOException {
+        for (Map.Entry<Long, Tile> entry : this.tiles.entrySet())
+            if (entry.getValue().dirty) {
+                writeTile(entry.getKey(), entry.getValue().words);
+                entry.getValue().dirty = false;
+            }
+        this.channel.force(false);
+    }
+
+    /**
+     * write the changed tiles and close the file
+     *
+     * @throws IOException failed to write to the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.channel.isOpen())
+            return;
+        try {
+            flush();
+        } finally {
+            this.tiles.clear();
+            this.channel.close();
+        }
+    }
+
+    /**
+     * @param row    row of the cells
+     * @param column first column of the cells
+     * @param count  number of cells (up to 64), all in the same tile
+     * @return the cells as bits, the first cell in the lowest bit
+     */
+    private long rowBits(int row, int column, int count) {
+        long[] words = tile(row, column).words;
+        int base = (row & TILE_MASK) * WORDS_PER_TILE_ROW, inTile = column & TILE_MASK, index = inTile >>> 6, shift = inTile & 63;
+        long bits = words[base + index] >>> shift;
+        if (shift != 0 && 64 - shift < count) //the cells continue in the next long of the tile row
+            bits |= words[base + index + 1] << (64 - shift);
+        return count == 64 ? bits : bits & ((1L << count) - 1);
+    }
+
+    /**
+     * get the tile of a cell, read it from the file if it is not cached.
+     * when the cache is full the least recently used tile is evicted and written back if it was changed.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     * @return the tile that contains the cell
+     * @throws UncheckedIOException failed to read or write the file
+     */
+    private Tile tile(int row, int column) {
+        long key = (long) (row >>> TILE_SHIFT) * this.tileColumns + (column >>> TILE_SHIFT);
+        Tile tile = this.tiles.get(key);
+        if (tile != null)
+            return tile;
+        try {
+            if (this.tiles.size() >= this.cachedTiles) {
+                Iterator<Map.Entry<Long, Tile>> eldest = this.tiles.entrySet().iterator();
+                Map.Entry<Long, Tile> entry = eldest.next();
+                if (entry.getValue().dirty)
+                    writeTile(entry.getKey(), entry.getValue().words);
+                eldest.remove();
+                tile = entry.getValue(); //reuse the words of the evicted tile
+                tile.dirty = false;
+            } else
+                tile = new Tile();
+            readTile(key, tile.words);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.tiles.put(key, tile);
+        return tile;
+    }
+
+    private void readTile(long key, long[] words) throws IOException {
+        this.transfer.clear();
+        long position = HEADER_SIZE + key * TILE_BYTES;
+        while (this.transfer.hasRemaining()) {
+            int read = this.channel.read(this.transfer, position + this.transfer.position());
+            if (read < 0) { //after the end of the file - all TILEs
+                while (this.transfer.hasRemaining())
+                    this.transfer.put((byte) 0);
+                break;
+            }
+        }
+        this.transfer.flip();
+        this.transfer.asLongBuffer().get(words);
+    }
+
+    private void writeTile(long key, long[] words) throws IOException {
+        this.transfer.clear();
+        this.transfer.asLongBuffer().put(words);
+        long position = HEADER_SIZE + key * TILE_BYTES;
+        while (this.transfer.hasRemaining())
+            this.channel.write(this.transfer, position + this.transfer.position());
+    }
+
+    /**
+     * cached tile
+     */
+    private static class Tile {
+        private final long[] words = new long[TILE_BYTES / Long.BYTES];
+        private boolean dirty; //changed since it was read
+    }
+}
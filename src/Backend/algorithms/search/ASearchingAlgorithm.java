@@ -1,5 +1,8 @@
 package Backend.algorithms.search;
 
+import java.util.Arrays;
+import java.util.BitSet;
+
 /**
  * abstract search algorithm
  */
@@ -26,4 +29,101 @@ public abstract class ASearchingAlgorithm implements ISearchingAlgorithm {
     public int getNumberOfNodesEvaluated() {
         return NumberOfNodesEvaluated;
     }
+
+    /**
+     * informed search - the frontier is an IndexedMinHeap of states ordered by cost + heuristic estimate.
+     * when a cheaper path to a state in the frontier is found its priority is lowered in place.
+     * <p>
+     * 1     g(start) := 0, open := {start}
+     * 2     while open is not empty do
+     * 2.1       v := the state in open with the lowest g(v) + h(v)
+     * 2.2       if v is the goal then
+     * return v
+     * 2.3       close v
+     * 2.4       for all edges from v to w with cost c do
+     * 2.4.1         if w is not closed and g(v) + c < g(w) then
+     * g(w) := g(v) + c, parent(w) := v
+     * add w to open, or lower its priority
+     *
+     * @param domain    Searchable problem
+     * @param heuristic admissible heuristic, estimate 0 for every state gives uniform cost search
+     * @return solution to the given problem; empty Solution if solution not found
+     */
+    protected Solution informedSearch(ISearchable domain, IHeuristic heuristic) {
+        int statesCount = domain.getStatesCount();
+        int start = domain.getStateIndex(domain.getStartState()), goal = domain.getStateIndex(domain.getGoalState());
+        int[] parents = new int[statesCount], pathCosts = new int[statesCount];
+        int[] successors = new int[domain.getMaxSuccessorsCount()], costs = new int[successors.length];
+        BitSet closed = new BitSet(statesCount);
+        IndexedMinHeap open = new IndexedMinHeap(statesCount);
+        int discovered = 1;
+
+        Arrays.fill(pathCosts, Integer.MAX_VALUE); //1
+        pathCosts[start] = 0;
+        parents[start] = -1;
+        open.addOrDecrease(start, heuristic.estimate(start, goal));
+        while (!open.isEmpty()) { //2
+            int currentState = open.remove(); //2.1
+            if (currentState == goal) { //2.2
+                this.NumberOfNodesEvaluated = discovered;
+                return buildSolution(domain, goal, parents);
+            }
+            closed.set(currentState); //2.3
+            int count = domain.getSuccessors(currentState, successors, costs);
+            for (int i = 0; i < count; i++) { //2.4
+                int next = successors[i], cost = pathCosts[currentState] + costs[i];
+                if (!closed.get(next) && cost < pathCosts[next]) { //2.4.1
+                    if (pathCosts[next] == Integer.MAX_VALUE)
+                        discovered++;
+                    pathCosts[next] = cost;
+                    parents[next] = currentState;
+                    open.addOrDecrease(next, cost + heuristic.estimate(next, goal));
+                }
+            }
+        }
+        this.NumberOfNodesEvaluated = discovered;
+        return new Solution();
+    }
+
+    /**
+     * build a Solution from a parents array of state indexes.
+     * AState objects are created only for the states on the path.
+     *
+     * @param domain  Searchable problem
+     * @param goal    index of the goal state
+     * @param parents parents[i] - index of the state we reached state i from, -1 for the start state
+     * @return solution from the start state to the goal
+     */
+    protected static Solution buildSolution(ISearchable domain, int goal, int[] parents) {
+        int length = 0;
+        for (int state = goal; state != -1; state = parents[state])
+            length++;
+        int[] path = new int[length];
+        for (int state = goal, i = length - 1; state != -1; state = parents[state], i--)
+            path[i] = state;
+        return buildSolution(domain, path);
+    }
+
+    /**
+     * build a Solution from a path of state indexes, the costs are taken from the domain moves.
+     *
+     * @param domain Searchable problem
+     * @param path   state indexes from the start state to the goal, every state is a successor of the one before
+     * @return solution of the given path
+     * @throws IllegalStateException two states on the path are not connected by a move
+     */
+    protected static Solution buildSolution(ISearchable domain, int[] path) throws IllegalStateException {
+        int[] successors = new int[domain.getMaxSuccessorsCount()], costs = new int[successors.length];
+        AState state = domain.getState(path[0], null, 0);
+        for (int i = 1; i < path.length; i++) {
+            int count = domain.getSuccessors(path[i - 1], successors, costs), stepCost = -1;
+            for (int j = 0; j < count && stepCost == -1; j++)
+                if (successors[j] == path[i])
+                    stepCost = costs[j];
+            if (stepCost == -1)
+                throw new IllegalStateException("the path contains states that are not connected");
+            state = domain.getState(path[i], state, state.getCost() + stepCost);
+        }
+        return new Solution(state);
+    }
 }
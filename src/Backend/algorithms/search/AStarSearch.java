@@ -0,0 +1,41 @@
+package Backend.algorithms.search;
+
+/**
+ * A* Search algorithm
+ * <p>
+ * like Best First Search, but the frontier is ordered by cost + heuristic estimate to the goal,
+ * so states that lead away from the goal are evaluated last.
+ * with an admissible heuristic the solution is the cheapest path.
+ */
+public class AStarSearch extends ASearchingAlgorithm {
+    private final IHeuristic heuristic;
+
+    /**
+     * constructor - use the heuristic of the solved problem (ISearchable.getHeuristic)
+     */
+    public AStarSearch() {
+        this(null);
+    }
+
+    /**
+     * constructor
+     *
+     * @param heuristic admissible heuristic to use, null to use the heuristic of the solved problem
+     */
+    public AStarSearch(IHeuristic heuristic) {
+        super("A* Search");
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * @param domain Searchable problem
+     * @return solution to the given problem; empty Solution if solution not found
+     * @throws IllegalArgumentException null -> cant solve NULL problem.
+     */
+    @Override
+    public Solution solve(ISearchable domain) throws IllegalArgumentException {
+        if (domain == null)
+            throw new IllegalArgumentException("cant solve NULL problem");
+        return this.informedSearch(domain, this.heuristic != null ? this.heuristic : domain.getHeuristic());
+    }
+}
@@ -1,32 +1,25 @@
 package Backend.algorithms.search;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
-
 /**
  * Best First Search algorithm
+ * <p>
+ * the frontier is ordered by the cost of the path (uniform cost search),
+ * a state already in the frontier gets its cost lowered when a cheaper path to it is found.
  */
 public class BestFirstSearch extends BreadthFirstSearch {
     public BestFirstSearch() {
-        super("Best First Search", new PriorityQueue<>(new priceComparator()));
+        super("Best First Search");
     }
-}
-
-/**
- * Comparator for the PriorityQueue
- */
-class priceComparator implements Comparator<AState> {
 
     /**
-     * @param o1 AState to compare
-     * @param o2 AState to compare
-     * @return =0 - equals, >0 - o1 is bigger, <0 - o2 is bigger
-     * @throws IllegalArgumentException one or more of the given AState is Null
+     * @param domain Searchable problem
+     * @return the cheapest solution to the given problem; empty Solution if solution not found
+     * @throws IllegalArgumentException null -> cant solve NULL problem.
      */
     @Override
-    public int compare(AState o1, AState o2) throws IllegalArgumentException {
-        if (o1 == null || o2 == null)
-            throw new IllegalArgumentException("one or more of the given AState is Null");
-        return Integer.compare(o1.getCost(), o2.getCost());
+    public Solution solve(ISearchable domain) throws IllegalArgumentException {
+        if (domain == null)
+            throw new IllegalArgumentException("cant solve NULL problem");
+        return this.informedSearch(domain, (state, goal) -> 0);
     }
 }
@@ -0,0 +1,125 @@
+package Backend.algorithms.search;
+
+import java.util.BitSet;
+
+/**
+ * Bidirectional Breadth First Search algorithm
+ * <p>
+ * runs Breadth First Search from the start state and from the goal state together, one level at a time,
+ * and stops when the two searches meet. each search explores only about half the distance to the goal.
+ * the moves of the problem must be reversible - if w is a successor of v, v is a successor of w
+ * (true for SearchableMaze and SearchableMaze3D). the goal state is the only exception -
+ * a goal that no move enters (a WALL) is not searched from, and the solution is empty like in Breadth First Search.
+ */
+public class BidirectionalBreadthFirstSearch extends ASearchingAlgorithm {
+    public BidirectionalBreadthFirstSearch() {
+        super("Bidirectional Breadth First Search");
+    }
+
+    /**
+     * 1     label start as discovered from the start, label goal as discovered from the goal
+     * 2     while both queues are not empty do
+     * 2.1       pick the side with the smaller queue
+     * 2.2       for all v in the current level of the side do
+     * 2.2.1         for all edges from v to w do
+     * 2.2.1.1           if w was discovered by the other side then
+     * return path(start, v) + path(w, goal)
+     * 2.2.1.2           if w is not labeled as discovered by the side then
+     * label w, enqueue w
+     *
+     * @param domain Searchable problem
+     * @return solution to the given problem; empty Solution if solution not found
+     * @throws IllegalArgumentException null -> cant solve NULL problem.
+     */
+    @Override
+    public Solution solve(ISearchable domain) throws IllegalArgumentException {
+        if (domain == null)
+            throw new IllegalArgumentException("cant solve NULL problem");
+        int statesCount = domain.getStatesCount();
+        int start = domain.getStateIndex(domain.getStartState()), goal = domain.getStateIndex(domain.getGoalState());
+        if (start == goal) {
+            this.NumberOfNodesEvaluated = 1;
+            return buildSolution(domain, new int[]{start});
+        }
+        int[] successors = new int[domain.getMaxSuccessorsCount()], costs = new int[successors.length];
+        if (!canEnter(domain, goal, successors, costs)) {
+            this.NumberOfNodesEvaluated = 1;
+            return new Solution();
+        }
+        BitSet[] visited = {new BitSet(statesCount), new BitSet(statesCount)}; //0 - from start, 1 - from goal
+        int[][] parents = {new int[statesCount], new int[statesCount]}, queues = {new int[statesCount], new int[statesCount]};
+        int[] heads = {0, 0}, tails = {1, 1};
+
+        visited[0].set(start); //1
+        visited[1].set(goal);
+        parents[0][start] = -1;
+        parents[1][goal] = -1;
+        queues[0][0] = start;
+        queues[1][0] = goal;
+        while (heads[0] < tails[0] && heads[1] < tails[1]) { //2
+            int side = tails[0] - heads[0] <= tails[1] - heads[1] ? 0 : 1, other = 1 - side; //2.1
+            int levelEnd = tails[side];
+            while (heads[side] < levelEnd) { //2.2
+                int currentState = queues[side][heads[side]++];
+                int count = domain.getSuccessors(currentState, successors, costs);
+                for (int i = 0; i < count; i++) { //2.2.1
+                    int next = successors[i];
+                    if (visited[other].get(next)) { //2.2.1.1
+                        this.NumberOfNodesEvaluated = tails[0] + tails[1];
+                        return side == 0 ? buildSolution(domain, join(currentState, parents[0], next, parents[1]))
+                                : buildSolution(domain, join(next, parents[0], currentState, parents[1]));
+                    }
+                    if (!visited[side].get(next)) { //2.2.1.2
+                        visited[side].set(next);
+                        parents[side][next] = currentState;
+                        queues[side][tails[side]++] = next;
+                    }
+                }
+            }
+        }
+        this.NumberOfNodesEvaluated = tails[0] + tails[1];
+        return new Solution();
+    }
+
+    /**
+     * @param domain     Searchable problem
+     * @param state      index of a state
+     * @param successors buffer for the successors of the state
+     * @param costs      buffer for the costs of the moves
+     * @return true if there is a move into the state from one of its successors
+     */
+    private static boolean canEnter(ISearchable domain, int state, int[] successors, int[] costs) {
+        int[] back = new int[successors.length], backCosts = new int[successors.length];
+        int count = domain.getSuccessors(state, successors, costs);
+        for (int i = 0; i < count; i++) {
+            int backCount = domain.getSuccessors(successors[i], back, backCosts);
+            for (int j = 0; j < backCount; j++)
+                if (back[j] == state)
+                    return true;
+        }
+        return false;
+    }
+
+    /**
+     * join the two halves of the path
+     *
+     * @param fromStart       last state of the half that starts at the start state
+     * @param parentsForward  parents of the search from the start state
+     * @param toGoal          first state of the half that ends at the goal state
+     * @param parentsBackward parents of the search from the goal state
+     * @return the full path, from the start state to the goal state
+     */
+    private static int[] join(int fromStart, int[] parentsForward, int toGoal, int[] parentsBackward) {
+        int forwardLength = 0, backwardLength = 0;
+        for (int state = fromStart; state != -1; state = parentsForward[state])
+            forwardLength++;
+        for (int state = toGoal; state != -1; state = parentsBackward[state])
+            backwardLength++;
+        int[] path = new int[forwardLength + backwardLength];
+        for (int state = fromStart, i = forwardLength - 1; state != -1; state = parentsForward[state], i--)
+            path[i] = state;
+        for (int state = toGoal, i = forwardLength; state != -1; state = parentsBackward[state], i++)
+            path[i] = state;
+        return path;
+    }
+}
@@ -1,22 +1,26 @@
 package Backend.algorithms.search;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.BitSet;
 
 /**
  * Breadth First Search algorithm
+ * <p>
+ * works on the states indexes of the domain: visited states are kept in a BitSet and
+ * the path in a parents array, AState objects are created only for the solution path.
  */
 public class BreadthFirstSearch extends ASearchingAlgorithm {
-    private Queue<AState> queue = new LinkedList<>();
 
     public BreadthFirstSearch() {
         super("Breadth First Search");
     }
 
-    protected BreadthFirstSearch(String name, Queue<AState> queue) {
+    /**
+     * constructor for algorithms that extend Breadth First Search
+     *
+     * @param name algorithm name
+     */
+    protected BreadthFirstSearch(String name) {
         super(name);
-        this.queue = queue;
     }
 
     /**
@@ -41,26 +45,34 @@ public class BreadthFirstSearch extends ASearchingAlgorithm {
     public Solution solve(ISearchable domain) throws IllegalArgumentException {
         if (domain == null)
             throw new IllegalArgumentException("cant solve NULL problem");
-        HashSet<String> visited = new HashSet<>();
-        AState currentState;
+        int statesCount = domain.getStatesCount();
+        int start = domain.getStateIndex(domain.getStartState()), goal = domain.getStateIndex(domain.getGoalState());
+        BitSet visited = new BitSet(statesCount);
+        int[] parents = new int[statesCount];
+        int[] successors = new int[domain.getMaxSuccessorsCount()], costs = new int[successors.length];
+        int[] queue = new int[statesCount]; //1 - every state is added at most once
+        int head = 0, tail = 0, currentState;
 
-        this.queue.clear(); //1
-        visited.add(domain.getStartState().toString()); //2
-        queue.add(domain.getStartState()); //3
-        while (!queue.isEmpty()) { //4
-            currentState = queue.remove(); //4.1
-            if (currentState.equals(domain.getGoalState())) { //4.2
-                this.NumberOfNodesEvaluated = visited.size();
-                return new Solution(currentState);
+        visited.set(start); //2
+        parents[start] = -1;
+        queue[tail++] = start; //3
+        while (head < tail) { //4
+            currentState = queue[head++]; //4.1
+            if (currentState == goal) { //4.2
+                this.NumberOfNodesEvaluated = tail;
+                return buildSolution(domain, goal, parents);
             }
-            for (AState a : domain.getAllSuccessors(currentState)) { //4.3
-                if (!visited.contains(a.toString())) { //4.3.1
-                    visited.add(a.toString());
-                    queue.add(a);
+            int count = domain.getSuccessors(currentState, successors, costs);
+            for (int i = 0; i < count; i++) { //4.3
+                int next = successors[i];
+                if (!visited.get(next)) { //4.3.1
+                    visited.set(next);
+                    parents[next] = currentState;
+                    queue[tail++] = next;
                 }
             }
         }
-        this.NumberOfNodesEvaluated = visited.size();
+        this.NumberOfNodesEvaluated = tail;
         return new Solution();
     }
 }
@@ -1,10 +1,13 @@
 package Backend.algorithms.search;
 
-import java.util.HashSet;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * Depth First Search algorithm
+ * <p>
+ * works on the states indexes of the domain: visited states are kept in a BitSet and
+ * the path in a parents array, AState objects are created only for the solution path.
  */
 public class DepthFirstSearch extends ASearchingAlgorithm {
     public DepthFirstSearch() {
@@ -30,23 +33,40 @@ public class DepthFirstSearch extends ASearchingAlgorithm {
     public Solution solve(ISearchable domain) throws IllegalArgumentException {
         if (domain == null)
             throw new IllegalArgumentException("cant solve NULL problem");
-        HashSet<String> visited = new HashSet<>();
-        Stack<AState> stack = new Stack<>(); //1
-        AState currentState;
-        stack.push(domain.getStartState()); //2
+        int statesCount = domain.getStatesCount();
+        int start = domain.getStateIndex(domain.getStartState()), goal = domain.getStateIndex(domain.getGoalState());
+        BitSet visited = new BitSet(statesCount);
+        int[] parents = new int[statesCount];
+        int[] successors = new int[domain.getMaxSuccessorsCount()], costs = new int[successors.length];
+        //the stack keeps pairs of (state, the state it was pushed from)
+        int[] stack = new int[64];
+        int size = 0, visitedCount = 0;
+        stack[size++] = start; //1, 2
+        stack[size++] = -1;
 
-        while (!stack.isEmpty()) { //3
-            currentState = stack.pop(); //3.1
-            if (currentState.equals(domain.getGoalState())) { //goal state found -> return Solution
-                this.NumberOfNodesEvaluated = visited.size();
-                return new Solution(currentState);
+        while (size > 0) { //3
+            int parent = stack[--size], currentState = stack[--size]; //3.1
+            if (currentState == goal) { //goal state found -> return Solution
+                parents[goal] = parent;
+                this.NumberOfNodesEvaluated = visitedCount;
+                return buildSolution(domain, goal, parents);
             }
-            if (!visited.contains(currentState.toString())) { //3.2
-                visited.add(currentState.toString()); //3.2.1
-                stack.addAll(domain.getAllSuccessors(currentState)); //3.2.2
+            if (!visited.get(currentState)) { //3.2
+                visited.set(currentState); //3.2.1
+                visitedCount++;
+                parents[currentState] = parent;
+                int count = domain.getSuccessors(currentState, successors, costs);
+                if (size + 2 * count > stack.length)
+                    stack = Arrays.copyOf(stack, Math.max(stack.length * 2, size + 2 * count));
+                for (int i = 0; i < count; i++) { //3.2.2
+                    if (!visited.get(successors[i])) {
+                        stack[size++] = successors[i];
+                        stack[size++] = currentState;
+                    }
+                }
             }
         }
-        this.NumberOfNodesEvaluated = visited.size();
+        this.NumberOfNodesEvaluated = visitedCount;
         return new Solution();
     }
 }
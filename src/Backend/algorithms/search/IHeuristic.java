@@ -0,0 +1,16 @@
+package Backend.algorithms.search;
+
+/**
+ * heuristic for informed search algorithms
+ */
+public interface IHeuristic {
+    /**
+     * estimate the cost of the cheapest path between two states.
+     * the estimate must never be bigger than the real cost (admissible heuristic).
+     *
+     * @param state index of a state in the problem
+     * @param goal  index of the goal state
+     * @return estimated cost from state to goal
+     */
+    int estimate(int state, int goal);
+}
@@ -4,6 +4,9 @@ import java.util.ArrayList;
 
 /**
  * Searchable problem interface
+ * <p>
+ * every state of the problem also has an index in [0, getStatesCount()),
+ * search algorithms can work on the indexes and create AState objects only for the solution path.
  */
 public interface ISearchable {
     /**
@@ -21,4 +24,46 @@ public interface ISearchable {
      * @return all the possible next states of the given state
      */
     ArrayList<AState> getAllSuccessors(AState state);
+
+    /**
+     * @return number of states in the problem
+     */
+    int getStatesCount();
+
+    /**
+     * @param state a valid state in the problem
+     * @return index of the given state
+     */
+    int getStateIndex(AState state);
+
+    /**
+     * @param index     index of a valid state in the problem
+     * @param prevState the state we came from, null for none
+     * @param cost      cost of the path to the state
+     * @return the state of the given index
+     */
+    AState getState(int index, AState prevState, int cost);
+
+    /**
+     * @return the maximum number of next states a state can have
+     */
+    int getMaxSuccessorsCount();
+
+    /**
+     * all the possible next states of the given state, without creating any object.
+     * both arrays must have room for getMaxSuccessorsCount() values.
+     *
+     * @param index      index of a valid state in the problem
+     * @param successors filled with the indexes of the next states
+     * @param costs      filled with the cost of the move to each of the next states
+     * @return number of next states written into the arrays
+     */
+    int getSuccessors(int index, int[] successors, int[] costs);
+
+    /**
+     * @return admissible heuristic for this problem, the default estimates 0 for every state
+     */
+    default IHeuristic getHeuristic() {
+        return (state, goal) -> 0;
+    }
 }
@@ -0,0 +1,142 @@
+package Backend.algorithms.search;
+
+/**
+ * binary min-heap of int keys in [0, capacity) ordered by int priorities.
+ * every key appears in the heap at most once, and keeps its position in the heap,
+ * so lowering the priority of a key already in the heap (decrease-key) is O(log n) instead of adding a duplicate.
+ */
+public class IndexedMinHeap {
+    private final int[] heap; //heap[i] - key in place i of the heap
+    private final int[] priorities; //priorities[key] - priority of the key
+    private final int[] positions; //positions[key] - place of the key in the heap + 1, 0 if not in the heap
+    private int size;
+
+    /**
+     * constructor
+     *
+     * @param capacity number of possible keys, keys are in [0, capacity)
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.priorities = new int[capacity];
+        this.positions = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @return true if the heap has no keys
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return number of keys in the heap
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param key key in [0, capacity)
+     * @return true if the key is in the heap
+     */
+    public boolean contains(int key) {
+        return this.positions[key] != 0;
+    }
+
+    /**
+     * add the key to the heap, or lower its priority if it is already in the heap with a higher priority.
+     *
+     * @param key      key in [0, capacity)
+     * @param priority priority of the key, lower comes first
+     * @return true if the heap changed
+     */
+    public boolean addOrDecrease(int key, int priority) {
+        if (this.positions[key] == 0) {
+            this.heap[this.size] = key;
+            this.positions[key] = ++this.size;
+        } else if (priority >= this.priorities[key])
+            return false;
+        this.priorities[key] = priority;
+        this.siftUp(this.positions[key] - 1);
+        return true;
+    }
+
+    /**
+     * @return the key with the lowest priority, without removing it
+     * @throws IllegalStateException the heap is empty
+     */
+    public int peek() throws IllegalStateException {
+        if (this.size == 0)
+            throw new IllegalStateException("the heap is empty");
+        return this.heap[0];
+    }
+
+    /**
+     * remove the key with the lowest priority
+     *
+     * @return the removed key
+     * @throws IllegalStateException the heap is empty
+     */
+    public int remove() throws IllegalStateException {
+        int min = this.peek();
+        this.positions[min] = 0;
+        if (--this.size > 0) {
+            int last = this.heap[this.size];
+            this.heap[0] = last;
+            this.positions[last] = 1;
+            this.siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * @param key key in [0, capacity)
+     * @return the last priority given to the key
+     */
+    public int getPriority(int key) {
+        return this.priorities[key];
+    }
+
+    /**
+     * remove all the keys from the heap
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++)
+            this.positions[this.heap[i]] = 0;
+        this.size = 0;
+    }
+
+    private void siftUp(int place) {
+        int key = this.heap[place], priority = this.priorities[key];
+        while (place > 0) {
+            int parentPlace = (place - 1) >>> 1, parent = this.heap[parentPlace];
+            if (this.priorities[parent] <= priority)
+                break;
+            this.heap[place] = parent;
+            this.positions[parent] = place + 1;
+            place = parentPlace;
+        }
+        this.heap[place] = key;
+        this.positions[key] = place + 1;
+    }
+
+    private void siftDown(int place) {
+        int key = this.heap[place], priority = this.priorities[key];
+        int half = this.size >>> 1;
+        while (place < half) {
+            int childPlace = 2 * place + 1, child = this.heap[childPlace];
+            int rightPlace = childPlace + 1;
+            if (rightPlace < this.size && this.priorities[this.heap[rightPlace]] < this.priorities[child])
+                child = this.heap[childPlace = rightPlace];
+            if (priority <= this.priorities[child])
+                break;
+            this.heap[place] = child;
+            this.positions[child] = place + 1;
+            place = childPlace;
+        }
+        this.heap[place] = key;
+        this.positions[key] = place + 1;
+    }
+}
@@ -0,0 +1,223 @@
+package Backend.algorithms.search;
+
+import Backend.algorithms.mazeGenerators.Maze;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Jump Point Search algorithm - A* for SearchableMaze that skips symmetric paths.
+ * <p>
+ * instead of adding every neighbour to the frontier, the search "jumps" in a straight or diagonal line
+ * until it reaches the goal, a dead end, or a cell with a forced neighbour (a cell that can be reached
+ * cheaply only through the current one because of a wall). only those jump points enter the frontier,
+ * so big open areas cost a few jump points instead of every cell.
+ * the moves and costs are the same as SearchableMaze: straight move costs 10, diagonal move costs 15
+ * and is allowed if at least one of the two cells it passes near is a TILE.
+ * other problems are solved with plain A*.
+ */
+public class JumpPointSearch extends ASearchingAlgorithm {
+    private Maze maze;
+    private int columns, goalRow, goalColumn;
+
+    public JumpPointSearch() {
+        super("Jump Point Search");
+    }
+
+    /**
+     * 1     g(start) := 0, open := {start}
+     * 2     while open is not empty do
+     * 2.1       v := the jump point in open with the lowest g(v) + h(v)
+     * 2.2       if v is the goal then
+     * return the path of jump points, with the cells between them
+     * 2.3       close v
+     * 2.4       for all the pruned neighbours w of v (all neighbours for start) do
+     * 2.4.1         j := jump from v towards w
+     * 2.4.2         if j exists, is not closed and g(v) + distance(v, j) < g(j) then
+     * g(j) := g(v) + distance(v, j), parent(j) := v
+     * add j to open, or lower its priority
+     *
+     * @param domain Searchable problem
+     * @return solution to the given problem; empty Solution if solution not found
+     * @throws IllegalArgumentException null -> cant solve NULL problem.
+     */
+    @Override
+    public Solution solve(ISearchable domain) throws IllegalArgumentException {
+        if (domain == null)
+            throw new IllegalArgumentException("cant solve NULL problem");
+        if (!(domain instanceof SearchableMaze))
+            return this.informedSearch(domain, domain.getHeuristic());
+        this.maze = ((SearchableMaze) domain).getMaze();
+        this.columns = maze.getColumnsSize();
+        try {
+            return this.jumpPointSearch(domain);
+        } finally {
+            this.maze = null;
+        }
+    }
+
+    private Solution jumpPointSearch(ISearchable domain) {
+        int statesCount = domain.getStatesCount();
+        int start = domain.getStateIndex(domain.getStartState()), goal = domain.getStateIndex(domain.getGoalState());
+        this.goalRow = goal / columns;
+        this.goalColumn = goal % columns;
+        IHeuristic heuristic = new OctileHeuristic(columns);
+        int[] parents = new int[statesCount], pathCosts = new int[statesCount];
+        int[] neighbours = new int[domain.getMaxSuccessorsCount()], costs = new int[neighbours.length];
+        BitSet closed = new BitSet(statesCount);
+        IndexedMinHeap open = new IndexedMinHeap(statesCount);
+        int discovered = 1;
+
+        Arrays.fill(pathCosts, Integer.MAX_VALUE); //1
+        pathCosts[start] = 0;
+        parents[start] = -1;
+        open.addOrDecrease(start, heuristic.estimate(start, goal));
+        while (!open.isEmpty()) { //2
+            int current = open.remove(); //2.1
+            if (current == goal) { //2.2
+                this.NumberOfNodesEvaluated = discovered;
+                return buildSolution(domain, this.expandPath(goal, parents));
+            }
+            closed.set(current); //2.3
+            int count = parents[current] == -1 ? domain.getSuccessors(current, neighbours, costs)
+                    : this.prunedNeighbours(current, parents[current], neighbours);
+            int row = current / columns, column = current % columns;
+            for (int i = 0; i < count; i++) { //2.4
+                int neighbourRow = neighbours[i] / columns, neighbourColumn = neighbours[i] % columns;
+                int jumpPoint = this.jump(neighbourRow, neighbourColumn, neighbourRow - row, neighbourColumn - column); //2.4.1
+                if (jumpPoint == -1 || closed.get(jumpPoint))
+                    continue;
+                int cost = pathCosts[current] + heuristic.estimate(current, jumpPoint);
+                if (cost < pathCosts[jumpPoint]) { //2.4.2
+                    if (pathCosts[jumpPoint] == Integer.MAX_VALUE)
+                        discovered++;
+                    pathCosts[jumpPoint] = cost;
+                    parents[jumpPoint] = current;
+                    open.addOrDecrease(jumpPoint, cost + heuristic.estimate(jumpPoint, goal));
+                }
+            }
+        }
+        this.NumberOfNodesEvaluated = discovered;
+        return new Solution();
+    }
+
+    /**
+     * neighbours of a cell that are worth checking when arriving from the parent jump point:
+     * the natural neighbours in the direction of movement and the forced neighbours.
+     *
+     * @param current    index of the cell
+     * @param parent     index of the jump point we arrived from
+     * @param neighbours filled with the neighbours indexes
+     * @return number of neighbours written
+     */
+    private int prunedNeighbours(int current, int parent, int[] neighbours) {
+        int row = current / columns, column = current % columns, count = 0;
+        int dRow = Integer.signum(row - parent / columns), dColumn = Integer.signum(column - parent % columns);
+        if (dRow != 0 && dColumn != 0) { //diagonal
+            boolean vertical = this.walkable(row + dRow, column), horizontal = this.walkable(row, column + dColumn);
+            if (vertical)
+                neighbours[count++] = current + dRow * columns;
+            if (horizontal)
+                neighbours[count++] = current + dColumn;
+            if ((vertical || horizontal) && this.walkable(row + dRow, column + dColumn))
+                neighbours[count++] = current + dRow * columns + dColumn;
+            if (!this.walkable(row, column - dColumn) && vertical && this.walkable(row + dRow, column - dColumn))
+                neighbours[count++] = current + dRow * columns - dColumn;
+            if (!this.walkable(row - dRow, column) && horizontal && this.walkable(row - dRow, column + dColumn))
+                neighbours[count++] = current - dRow * columns + dColumn;
+        } else if (dColumn == 0) { //vertical
+            if (this.walkable(row + dRow, column)) {
+                neighbours[count++] = current + dRow * columns;
+                if (!this.walkable(row, column + 1) && this.walkable(row + dRow, column + 1))
+                    neighbours[count++] = current + dRow * columns + 1;
+                if (!this.walkable(row, column - 1) && this.walkable(row + dRow, column - 1))
+                    neighbours[count++] = current + dRow * columns - 1;
+            }
+        } else { //horizontal
+            if (this.walkable(row, column + dColumn)) {
+                neighbours[count++] = current + dColumn;
+                if (!this.walkable(row + 1, column) && this.walkable(row + 1, column + dColumn))
+                    neighbours[count++] = current + columns + dColumn;
+                if (!this.walkable(row - 1, column) && this.walkable(row - 1, column + dColumn))
+                    neighbours[count++] = current - columns + dColumn;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * move from the given cell in the given direction until a jump point is found
+     *
+     * @param row     row of the first cell in the direction
+     * @param column  column of the first cell in the direction
+     * @param dRow    row direction (-1, 0, 1)
+     * @param dColumn column direction (-1, 0, 1)
+     * @return index of the jump point, -1 if there is none in this direction
+     */
+    private int jump(int row, int column, int dRow, int dColumn) {
+        while (true) {
+            if (!this.walkable(row, column))
+                return -1;
+            if (row == goalRow && column == goalColumn)
+                return row * columns + column;
+            if (dRow != 0 && dColumn != 0) { //diagonal
+                if ((this.walkable(row + dRow, column - dColumn) && !this.walkable(row, column - dColumn)) ||
+                        (this.walkable(row - dRow, column + dColumn) && !this.walkable(row - dRow, column)))
+                    return row * columns + column;
+                //a jump point on the straight lines makes this cell a jump point
+                if (this.jump(row, column + dColumn, 0, dColumn) != -1 || this.jump(row + dRow, column, dRow, 0) != -1)
+                    return row * columns + column;
+                if (!this.walkable(row, column + dColumn) && !this.walkable(row + dRow, column))
+                    return -1; //both sides are WALLs - cant move diagonally
+            } else if (dRow == 0) { //horizontal
+                if ((this.walkable(row + 1, column + dColumn) && !this.walkable(row + 1, column)) ||
+                        (this.walkable(row - 1, column + dColumn) && !this.walkable(row - 1, column)))
+                    return row * columns + column;
+            } else { //vertical
+                if ((this.walkable(row + dRow, column + 1) && !this.walkable(row, column + 1)) ||
+                        (this.walkable(row + dRow, column - 1) && !this.walkable(row, column - 1)))
+                    return row * columns + column;
+            }
+            row += dRow;
+            column += dColumn;
+        }
+    }
+
+    /**
+     * @return true if the cell is in the maze and is a TILE
+     */
+    private boolean walkable(int row, int column) {
+        return this.maze.positionOfTile(row, column);
+    }
+
+    /**
+     * turn the chain of jump points into the full path of cells
+     *
+     * @param goal    index of the goal
+     * @param parents parent jump point of every jump point, -1 for the start
+     * @return indexes of all the cells from the start to the goal
+     */
+    private int[] expandPath(int goal, int[] parents) {
+        int length = 1;
+        for (int state = goal; parents[state] != -1; state = parents[state])
+            length += this.distanceInMoves(parents[state], state);
+        int[] path = new int[length];
+        int i = length - 1;
+        path[i] = goal;
+        for (int state = goal; parents[state] != -1; state = parents[state]) {
+            int parent = parents[state];
+            int dRow = Integer.signum(state / columns - parent / columns), dColumn = Integer.signum(state % columns - parent % columns);
+            for (int cell = state - dRow * columns - dColumn; i > 0 && cell != parent; cell -= dRow * columns + dColumn)
+                path[--i] = cell;
+            path[--i] = parent;
+        }
+        return path;
+    }
+
+    /**
+     * @return number of moves on the straight or diagonal line between two cells
+     */
+    private int distanceInMoves(int from, int to) {
+        return Math.max(Math.abs(from / columns - to / columns), Math.abs(from % columns - to % columns));
+    }
+}
@@ -0,0 +1,26 @@
+package Backend.algorithms.search;
+
+/**
+ * octile distance for 2D grids with 8 moves - straight move costs 10 and diagonal move costs 15.
+ * the cheapest path without walls takes min(dRows, dColumns) diagonal moves and the rest straight moves.
+ */
+public class OctileHeuristic implements IHeuristic {
+    private static final int STRAIGHT_COST = 10, DIAGONAL_COST = 15;
+    private final int columns;
+
+    /**
+     * constructor
+     *
+     * @param columns number of columns in the grid, state index is row * columns + column
+     */
+    public OctileHeuristic(int columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public int estimate(int state, int goal) {
+        int dRows = Math.abs(state / this.columns - goal / this.columns);
+        int dColumns = Math.abs(state % this.columns - goal % this.columns);
+        return DIAGONAL_COST * Math.min(dRows, dColumns) + STRAIGHT_COST * Math.abs(dRows - dColumns);
+    }
+}
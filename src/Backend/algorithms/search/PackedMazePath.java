@@ -0,0 +1,104 @@
+package Backend.algorithms.search;
+
+import Backend.algorithms.mazeGenerators.Position;
+
+import java.nio.ByteBuffer;
+
+/**
+ * compact binary form of a 2D maze solution path.
+ * the start cell is kept as two ints and every move after it as a 3 bit direction code,
+ * the costs are not stored - they are rebuilt from the move kind (straight or diagonal).
+ * layout: [states count][start row][start column][direction codes, 8 codes in every 3 bytes, lsb first]
+ */
+public class PackedMazePath {
+    private static final int STRAIGHT_COST = 10, DIAGONAL_COST = 15, HEADER_SIZE = 12;
+    // direction codes: UP, DOWN, LEFT, RIGHT, UP_LEFT, UP_RIGHT, DOWN_LEFT, DOWN_RIGHT
+    private static final int[] ROW_MOVES = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] COLUMN_MOVES = {0, 0, -1, 1, -1, 1, -1, 1};
+
+    private PackedMazePath() {
+    }
+
+    /**
+     * @param statesCount number of states on the path
+     * @return size in bytes of a packed path with the given number of states
+     */
+    public static int packedSize(int statesCount) {
+        return HEADER_SIZE + (statesCount > 1 ? (3 * (statesCount - 1) + 7) / 8 : 0);
+    }
+
+    /**
+     * pack a maze solution
+     *
+     * @param solution solution of a 2D maze, every state is a MazeState
+     * @return the packed path
+     * @throws IllegalArgumentException two states on the path are not neighbours
+     */
+    public static byte[] pack(Solution solution) throws IllegalArgumentException {
+        var path = solution.getSolutionPath();
+        ByteBuffer buffer = ByteBuffer.allocate(packedSize(path.size()));
+        buffer.putInt(path.size());
+        if (path.isEmpty())
+            return buffer.putInt(0).putInt(0).array();
+        Position previous = (Position) path.get(0).getCurrentState();
+        buffer.putInt(previous.getRowIndex()).putInt(previous.getColumnIndex());
+        byte[] packed = buffer.array();
+        for (int i = 1; i < path.size(); i++) {
+            Position current = (Position) path.get(i).getCurrentState();
+            int code = directionCode(current.getRowIndex() - previous.getRowIndex(), current.getColumnIndex() - previous.getColumnIndex());
+            int bit = 3 * (i - 1), index = HEADER_SIZE + (bit >>> 3), shift = bit & 7;
+            packed[index] |= code << shift;
+            if (shift > 5) //the code crosses a byte
+                packed[index + 1] |= code >>> (8 - shift);
+            previous = current;
+        }
+        return packed;
+    }
+
+    /**
+     * unpack a maze solution
+     *
+     * @param packed array that holds a packed path
+     * @param offset where the packed path starts in the array
+     * @return the solution, MazeStates with the costs of the moves
+     * @throws IllegalArgumentException the array is too short for the packed path
+     */
+    public static Solution unpack(byte[] packed, int offset) throws IllegalArgumentException {
+        ByteBuffer buffer = ByteBuffer.wrap(packed, offset, packed.length - offset);
+        if (buffer.remaining() < HEADER_SIZE)
+            throw new IllegalArgumentException("the packed path is too short");
+        int statesCount = buffer.getInt(), row = buffer.getInt(), column = buffer.getInt();
+        if (statesCount <= 0)
+            return new Solution();
+        if (packed.length - offset < HEADER_SIZE + (3L * (statesCount - 1) + 7) / 8) //long - the count is read from the bytes
+            throw new IllegalArgumentException("the packed path is too short");
+        AState state = new MazeState(null, new Position(row, column), 0);
+        for (int i = 1; i < statesCount; i++) {
+            int bit = 3 * (i - 1), index = offset + HEADER_SIZE + (bit >>> 3), shift = bit & 7;
+            int bits = packed[index] & 0xFF;
+            if (shift > 5)
+                bits |= (packed[index + 1] & 0xFF) << 8;
+            int code = (bits >>> shift) & 7;
+            row += ROW_MOVES[code];
+            column += COLUMN_MOVES[code];
+            state = new MazeState(state, new Position(row, column), state.getCost() + (code < 4 ? STRAIGHT_COST : DIAGONAL_COST));
+        }
+        return new Solution(state);
+    }
+
+    /**
+     * @param packed packed path
+     * @return the solution
+     * @throws IllegalArgumentException the array is too short for the packed path
+     */
+    public static Solution unpack(byte[] packed) throws IllegalArgumentException {
+        return unpack(packed, 0);
+    }
+
+    private static int directionCode(int rowMove, int columnMove) throws IllegalArgumentException {
+        for (int code = 0; code < ROW_MOVES.length; code++)
+            if (ROW_MOVES[code] == rowMove && COLUMN_MOVES[code] == columnMove)
+                return code;
+        throw new IllegalArgumentException("the path contains states that are not neighbours");
+    }
+}
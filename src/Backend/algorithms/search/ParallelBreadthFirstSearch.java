@@ -0,0 +1,145 @@
+package Backend.algorithms.search;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * parallel Breadth First Search algorithm
+ * <p>
+ * level-synchronous BFS: every level of the frontier is split between the threads of a ForkJoinPool,
+ * a state is claimed by the thread that sets its bit in a shared atomic visited bitmap,
+ * and that thread writes its parent in the shared parents array.
+ * the solution has the same number of moves as Breadth First Search.
+ * the domain getSuccessors must be safe to call from many threads (true for SearchableMaze and SearchableMaze3D).
+ */
+public class ParallelBreadthFirstSearch extends ASearchingAlgorithm {
+    private static final int SEQUENTIAL_THRESHOLD = 2048; //frontier slice size that is expanded by one thread
+    private final ForkJoinPool pool;
+
+    /**
+     * constructor - use the common ForkJoinPool (all the cores)
+     */
+    public ParallelBreadthFirstSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * constructor
+     *
+     * @param pool pool to run the search on
+     * @throws IllegalArgumentException pool == null
+     */
+    public ParallelBreadthFirstSearch(ForkJoinPool pool) throws IllegalArgumentException {
+        super("Parallel Breadth First Search");
+        if (pool == null)
+            throw new IllegalArgumentException("cant handle null pool");
+        this.pool = pool;
+    }
+
+    /**
+     * 1     label root as discovered, frontier := {root}
+     * 2     while frontier is not empty and goal is not discovered do
+     * 2.1       in parallel for all v in frontier do
+     * 2.1.1         for all edges from v to w do
+     * 2.1.1.1           if this thread is the one that labels w as discovered then
+     * parent(w) := v, add w to the next frontier
+     * 2.2       frontier := next frontier
+     *
+     * @param domain Searchable problem
+     * @return solution to the given problem; empty Solution if solution not found
+     * @throws IllegalArgumentException null -> cant solve NULL problem.
+     */
+    @Override
+    public Solution solve(ISearchable domain) throws IllegalArgumentException {
+        if (domain == null)
+            throw new IllegalArgumentException("cant solve NULL problem");
+        int statesCount = domain.getStatesCount();
+        int start = domain.getStateIndex(domain.getStartState()), goal = domain.getStateIndex(domain.getGoalState());
+        AtomicLongArray visited = new AtomicLongArray((statesCount + 63) >>> 6);
+        int[] parents = new int[statesCount];
+        int[] frontier = {start};
+        int visitedCount = 1;
+
+        claim(visited, start); //1
+        parents[start] = -1;
+        while (frontier.length > 0 && !isClaimed(visited, goal)) { //2
+            ExpandTask task = new ExpandTask(domain, visited, parents, frontier, 0, frontier.length); //2.1
+            //small levels (long corridors) are cheaper to expand here than to hand to the pool
+            frontier = frontier.length <= SEQUENTIAL_THRESHOLD ? task.compute() : this.pool.invoke(task); //2.2
+            visitedCount += frontier.length;
+        }
+        this.NumberOfNodesEvaluated = visitedCount;
+        return isClaimed(visited, goal) ? buildSolution(domain, goal, parents) : new Solution();
+    }
+
+    /**
+     * @return true if this call is the one that set the state bit
+     */
+    private static boolean claim(AtomicLongArray visited, int state) {
+        int word = state >>> 6;
+        long mask = 1L << state, current;
+        do {
+            current = visited.get(word);
+            if ((current & mask) != 0)
+                return false;
+        } while (!visited.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    private static boolean isClaimed(AtomicLongArray visited, int state) {
+        return (visited.get(state >>> 6) & (1L << state)) != 0;
+    }
+
+    /**
+     * expand a slice of the frontier, split in half until it is small enough
+     */
+    private static class ExpandTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L; //ForkJoinTask is Serializable, tasks are never serialized
+        private final ISearchable domain;
+        private final AtomicLongArray visited;
+        private final int[] parents, frontier;
+        private final int from, to;
+
+        ExpandTask(ISearchable domain, AtomicLongArray visited, int[] parents, int[] frontier, int from, int to) {
+            this.domain = domain;
+            this.visited = visited;
+            this.parents = parents;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return the states discovered from the slice
+         */
+        @Override
+        protected int[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ExpandTask left = new ExpandTask(domain, visited, parents, frontier, from, middle);
+                left.fork();
+                int[] right = new ExpandTask(domain, visited, parents, frontier, middle, to).compute();
+                int[] leftResult = left.join();
+                int[] result = new int[leftResult.length + right.length];
+                System.arraycopy(leftResult, 0, result, 0, leftResult.length);
+                System.arraycopy(right, 0, result, leftResult.length, right.length);
+                return result;
+            }
+            int[] successors = new int[domain.getMaxSuccessorsCount()], costs = new int[successors.length];
+            int[] discovered = new int[(to - from) * successors.length];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                int count = domain.getSuccessors(frontier[i], successors, costs);
+                for (int j = 0; j < count; j++) {
+                    if (claim(visited, successors[j])) {
+                        parents[successors[j]] = frontier[i];
+                        discovered[size++] = successors[j];
+                    }
+                }
+            }
+            return Arrays.copyOf(discovered, size);
+        }
+    }
+}
@@ -6,19 +6,23 @@ import Backend.algorithms.mazeGenerators.Position;
 import java.util.ArrayList;
 
 public class SearchableMaze implements ISearchable {
+    private static final int STRAIGHT_COST = 10, DIAGONAL_COST = 15, MAX_SUCCESSORS = 8;
     private final Maze maze;
+    private final int rows, columns;
     private final MazeState startState, goalState;
 
     /**
      * constructor
      *
-     * @param maze 3D maze to solve
+     * @param maze 2D maze to solve
      * @throws IllegalArgumentException -> maze == null
      */
     public SearchableMaze(Maze maze) throws IllegalArgumentException {
         if (maze == null)
             throw new IllegalArgumentException("cant handle null maze");
         this.maze = maze;
+        this.rows = maze.getRowsSize();
+        this.columns = maze.getColumnsSize();
         this.startState = new MazeState(null, maze.getStartPosition(), 0);
         this.goalState = new MazeState(null, maze.getGoalPosition(), 0);
     }
@@ -51,28 +55,93 @@ public class SearchableMaze implements ISearchable {
         ArrayList<AState> possibleStates = new ArrayList<>();
         if (state == null)
             return possibleStates;
-        Position currentPosition = (Position) state.getCurrentState();
-        boolean upWall = maze.positionOfWall(currentPosition.getUpPosition()),
-                downWall = maze.positionOfWall(currentPosition.getDownPosition()),
-                rightWall = maze.positionOfWall(currentPosition.getRightPosition()),
-                leftWall = maze.positionOfWall(currentPosition.getLeftPosition());
-        if (maze.validMazePosition(currentPosition.getUpRightPosition()) && !maze.positionOfWall(currentPosition.getUpRightPosition()) && (!upWall || !rightWall)) //UP-RIGHT
-            possibleStates.add(new MazeState(state, currentPosition.getUpRightPosition(), state.getCost() + 15));
-        if (maze.validMazePosition(currentPosition.getDownRightPosition()) && !maze.positionOfWall(currentPosition.getDownRightPosition()) && (!downWall || !rightWall)) //DOWN-RIGHT
-            possibleStates.add(new MazeState(state, currentPosition.getDownRightPosition(), state.getCost() + 15));
-        if (maze.validMazePosition(currentPosition.getUpLeftPosition()) && !maze.positionOfWall(currentPosition.getUpLeftPosition()) && (!upWall || !leftWall)) //UP-LEFT
-            possibleStates.add(new MazeState(state, currentPosition.getUpLeftPosition(), state.getCost() + 15));
-        if (maze.validMazePosition(currentPosition.getDownLeftPosition()) && !maze.positionOfWall(currentPosition.getDownLeftPosition()) && (!downWall || !leftWall)) //DOWN-LEFT
-            possibleStates.add(new MazeState(state, currentPosition.getDownLeftPosition(), state.getCost() + 15));
-        if (maze.validMazePosition(currentPosition.getUpPosition()) && !upWall) //UP
-            possibleStates.add(new MazeState(state, currentPosition.getUpPosition(), state.getCost() + 10));
-        if (maze.validMazePosition(currentPosition.getDownPosition()) && !downWall) //DOWN
-            possibleStates.add(new MazeState(state, currentPosition.getDownPosition(), state.getCost() + 10));
-        if (maze.validMazePosition(currentPosition.getRightPosition()) && !rightWall) //RIGHT
-            possibleStates.add(new MazeState(state, currentPosition.getRightPosition(), state.getCost() + 10));
-        if (maze.validMazePosition(currentPosition.getLeftPosition()) && !leftWall) //LEFT
-            possibleStates.add(new MazeState(state, currentPosition.getLeftPosition(), state.getCost() + 10));
-
+        int[] successors = new int[MAX_SUCCESSORS], costs = new int[MAX_SUCCESSORS];
+        int count = this.getSuccessors(this.getStateIndex(state), successors, costs);
+        for (int i = 0; i < count; i++)
+            possibleStates.add(this.getState(successors[i], state, state.getCost() + costs[i]));
         return possibleStates;
     }
+
+    /**
+     * @return number of cells in the maze, state index is row * columns + column
+     */
+    @Override
+    public int getStatesCount() {
+        return this.rows * this.columns;
+    }
+
+    @Override
+    public int getStateIndex(AState state) {
+        Position position = (Position) state.getCurrentState();
+        return position.getRowIndex() * this.columns + position.getColumnIndex();
+    }
+
+    @Override
+    public AState getState(int index, AState prevState, int cost) {
+        return new MazeState(prevState, new Position(index / this.columns, index % this.columns), cost);
+    }
+
+    /**
+     * @return octile distance to the goal
+     */
+    @Override
+    public IHeuristic getHeuristic() {
+        return new OctileHeuristic(this.columns);
+    }
+
+    @Override
+    public int getMaxSuccessorsCount() {
+        return MAX_SUCCESSORS;
+    }
+
+    /**
+     * all optional 1 block moves in the maze from the given cell.
+     * straight move costs 10, diagonal move costs 15 and allowed only if one of the two cells it passes near is a TILE.
+     *
+     * @param index      index of a valid state in the problem
+     * @param successors filled with the indexes of the next states
+     * @param costs      filled with the cost of the move to each of the next states
+     * @return number of next states written into the arrays
+     */
+    @Override
+    public int getSuccessors(int index, int[] successors, int[] costs) {
+        int row = index / this.columns, column = index % this.columns, count = 0;
+        boolean upWall = maze.positionOfWall(row - 1, column),
+                downWall = maze.positionOfWall(row + 1, column),
+                rightWall = maze.positionOfWall(row, column + 1),
+                leftWall = maze.positionOfWall(row, column - 1);
+        if (maze.positionOfTile(row - 1, column + 1) && (!upWall || !rightWall)) { //UP-RIGHT
+            successors[count] = index - this.columns + 1;
+            costs[count++] = DIAGONAL_COST;
+        }
+        if (maze.positionOfTile(row + 1, column + 1) && (!downWall || !rightWall)) { //DOWN-RIGHT
+            successors[count] = index + this.columns + 1;
+            costs[count++] = DIAGONAL_COST;
+        }
+        if (maze.positionOfTile(row - 1, column - 1) && (!upWall || !leftWall)) { //UP-LEFT
+            successors[count] = index - this.columns - 1;
+            costs[count++] = DIAGONAL_COST;
+        }
+        if (maze.positionOfTile(row + 1, column - 1) && (!downWall || !leftWall)) { //DOWN-LEFT
+            successors[count] = index + this.columns - 1;
+            costs[count++] = DIAGONAL_COST;
+        }
+        if (maze.positionOfTile(row - 1, column)) { //UP
+            successors[count] = index - this.columns;
+            costs[count++] = STRAIGHT_COST;
+        }
+        if (maze.positionOfTile(row + 1, column)) { //DOWN
+            successors[count] = index + this.columns;
+            costs[count++] = STRAIGHT_COST;
+        }
+        if (maze.positionOfTile(row, column + 1)) { //RIGHT
+            successors[count] = index + 1;
+            costs[count++] = STRAIGHT_COST;
+        }
+        if (maze.positionOfTile(row, column - 1)) { //LEFT
+            successors[count] = index - 1;
+            costs[count++] = STRAIGHT_COST;
+        }
+        return count;
+    }
 }
@@ -20,6 +20,7 @@ public class PrintSearchOnMaze {
         solveProblem(searchableMaze, new BreadthFirstSearch());
         solveProblem(searchableMaze, new DepthFirstSearch());
         solveProblem(searchableMaze, new BestFirstSearch());
+        solveProblem(searchableMaze, new AStarSearch());
     }
 
     private static void solveProblem(ISearchable domain, ISearchingAlgorithm searcher) {
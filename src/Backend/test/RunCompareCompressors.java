@@ -0,0 +1,66 @@
+package Backend.test;
+
+import Backend.IO.*;
+import Backend.algorithms.mazeGenerators.IMazeGenerator;
+import Backend.algorithms.mazeGenerators.Maze;
+import Backend.algorithms.mazeGenerators.MyMazeGenerator;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.function.Function;
+
+public class RunCompareCompressors {
+    private static final int WARMUP_RUNS = 5, RUNS = 20;
+
+    public static void main(String[] args) throws IOException {
+        IMazeGenerator mazeGenerator = new MyMazeGenerator();
+        for (int size : new int[]{100, 500, 1000}) {
+            Maze maze = mazeGenerator.generate(size, size);
+            System.out.printf("maze %dx%d (%d bytes)%n", size, size, maze.toByteArray().length);
+            compare("Simple", maze, SimpleCompressorOutputStream::new, SimpleDecompressorInputStream::new);
+            compare("My", maze, MyCompressorOutputStream::new, MyDecompressorInputStream::new);
+            compare("Context", maze, ContextCompressorOutputStream::new, ContextDecompressorInputStream::new);
+        }
+    }
+
+    /**
+     * compress and decompress the maze, print the compression ratio and the throughput of both directions
+     *
+     * @param name         name of the compressor
+     * @param maze         maze to compress
+     * @param compressor   creates the compressor around a stream
+     * @param decompressor creates the decompressor around a stream
+     * @throws IOException failed to compress or decompress
+     */
+    private static void compare(String name, Maze maze, Function<OutputStream, OutputStream> compressor,
+                                Function<InputStream, InputStream> decompressor) throws IOException {
+        byte[] mazeBytes = maze.toByteArray(), compressed = null, decompressed = new byte[mazeBytes.length];
+        long compressNanos = 0, decompressNanos = 0;
+        for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            OutputStream out = compressor.apply(bytes);
+            out.write(mazeBytes);
+            out.flush();
+            out.close();
+            compressed = bytes.toByteArray();
+            long middle = System.nanoTime();
+            InputStream in = decompressor.apply(new ByteArrayInputStream(compressed));
+            in.read(decompressed);
+            in.close();
+            long end = System.nanoTime();
+            if (i >= WARMUP_RUNS) {
+                compressNanos += middle - start;
+                decompressNanos += end - middle;
+            }
+        }
+        System.out.printf("  %-8s %9d bytes  ratio %6.2f  compress %8.1f MB/s  decompress %8.1f MB/s  equal: %s%n",
+                name, compressed.length, (double) mazeBytes.length / compressed.length,
+                megabytesPerSecond(mazeBytes.length, compressNanos), megabytesPerSecond(mazeBytes.length, decompressNanos),
+                Arrays.equals(mazeBytes, decompressed));
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return bytes * (double) RUNS / (1 << 20) / (nanos / 1e9);
+    }
+}
@@ -15,6 +15,7 @@ public class RunSearchOnMaze {
         solveProblem(searchableMaze, new BreadthFirstSearch());
         solveProblem(searchableMaze, new DepthFirstSearch());
         solveProblem(searchableMaze, new BestFirstSearch());
+        solveProblem(searchableMaze, new AStarSearch());
     }
 
     private static void solveProblem(ISearchable domain, ISearchingAlgorithm searcher) {
@@ -32,6 +32,7 @@ public class RunSearchOnMaze3D {
         solveProblem(searchableMaze, new BreadthFirstSearch());
         solveProblem(searchableMaze, new DepthFirstSearch());
         solveProblem(searchableMaze, new BestFirstSearch());
+        solveProblem(searchableMaze, new AStarSearch());
     }
 
     private static void solveProblem(ISearchable domain, ISearchingAlgorithm searcher) {
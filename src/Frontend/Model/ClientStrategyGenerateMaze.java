@@ -1,7 +1,6 @@
 package Frontend.Model;
 
 import Backend.Client.IClientStrategy;
-import Backend.IO.MyDecompressorInputStream;
 import Backend.algorithms.mazeGenerators.Maze;
 
 import java.io.*;
@@ -23,16 +22,12 @@ public class ClientStrategyGenerateMaze implements IClientStrategy {
     public void clientStrategy(InputStream inputStream, OutputStream outputStream) {
         try {
             ObjectOutputStream toServer = new ObjectOutputStream(outputStream);
-            ObjectInputStream fromServer = new ObjectInputStream(inputStream);
-            toServer.flush();
             int[] mazeDimensions = new int[]{rows, cols};
             toServer.writeObject(mazeDimensions);
             toServer.flush();
+            ObjectInputStream fromServer = new ObjectInputStream(inputStream); //after the request, so it can be sent as one frame
             byte[] compressedMaze = (byte[]) fromServer.readObject();
-            InputStream is = new MyDecompressorInputStream(new ByteArrayInputStream(compressedMaze));
-            byte[] decompressedMaze = new byte[rows * cols + 12];
-            is.read(decompressedMaze);
-            this.maze = new Maze(decompressedMaze);
+            this.maze = Maze.fromCompressed(compressedMaze);
         } catch (Exception var10) {
             var10.printStackTrace();
         }
@@ -0,0 +1,58 @@
+package Frontend.Model;
+
+import Backend.Client.IClientStrategy;
+import Backend.Server.GenerateProtocol;
+import Backend.Server.SolveProtocol;
+import Backend.algorithms.mazeGenerators.Maze;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * client strategy that asks the generating server for many mazes in one request
+ */
+public class ClientStrategyGenerateMazes implements IClientStrategy {
+    private int[][] sizes = new int[0][];
+    private long[] seeds;
+    private Maze[] mazes;
+
+    /**
+     * @param sizes rows and columns of every maze
+     * @param seeds seed of every maze, null for random mazes
+     */
+    public void setMazeSizes(int[][] sizes, long[] seeds) {
+        this.sizes = sizes;
+        this.seeds = seeds;
+    }
+
+    /**
+     * @return the mazes in the order they were requested, null for a maze that failed to generate
+     */
+    public Maze[] getMazes() {
+        return this.mazes;
+    }
+
+    @Override
+    public void clientStrategy(InputStream inputStream, OutputStream outputStream) {
+        try {
+            GenerateProtocol.writeRequest(outputStream, this.sizes, this.seeds);
+            DataInputStream fromServer = new DataInputStream(inputStream);
+            this.mazes = new Maze[this.sizes.length];
+            int index;
+            while ((index = fromServer.readInt()) != -1) { //the mazes come in the order they were ready
+                int length = fromServer.readInt();
+                if (index < 0 || index >= this.mazes.length)
+                    throw new IOException("bad maze index " + index);
+                if (length < 0)
+                    continue;
+                byte[] compressedMaze = new byte[length];
+                fromServer.readFully(compressedMaze);
+                this.mazes[index] = SolveProtocol.decompress(compressedMaze);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+}
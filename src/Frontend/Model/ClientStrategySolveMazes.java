@@ -0,0 +1,76 @@
+package Frontend.Model;
+
+import Backend.Client.IClientStrategy;
+import Backend.Server.SolveProtocol;
+import Backend.algorithms.mazeGenerators.Maze;
+import Backend.algorithms.search.Solution;
+
+import java.io.*;
+
+/**
+ * client strategy that sends many mazes to the solving server on one connection.
+ * the mazes are sent by another thread while the solutions are received, so it needs a streaming connection
+ * (Client.communicateWithServer) and not a ClientConnection that sends the whole request first.
+ */
+public class ClientStrategySolveMazes implements IClientStrategy {
+    private Maze[] mazes = new Maze[0];
+    private Solution[] solutions;
+
+    /**
+     * @param mazes mazes to solve
+     */
+    public void setMazes(Maze[] mazes) {
+        this.mazes = mazes;
+    }
+
+    /**
+     * @return the solutions in the order of the mazes, null for a maze that failed to solve.
+     * null if the batch did not complete - the connection failed or the server did not answer every maze
+     */
+    public Solution[] getSolutions() {
+        return this.solutions;
+    }
+
+    @Override
+    public void clientStrategy(InputStream inputStream, OutputStream outputStream) {
+        Maze[] toSolve = this.mazes;
+        Thread writer = new Thread(() -> {
+            try {
+                DataOutputStream toServer = new DataOutputStream(new BufferedOutputStream(outputStream));
+                SolveProtocol.writeBatchStart(toServer);
+                for (int id = 0; id < toSolve.length; id++)
+                    SolveProtocol.writeBatchMaze(toServer, id, toSolve[id]);
+                toServer.writeInt(SolveProtocol.END);
+                toServer.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "solve-batch-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        this.solutions = null;
+        try {
+            DataInputStream fromServer = new DataInputStream(inputStream);
+            Solution[] received = new Solution[toSolve.length];
+            boolean[] answered = new boolean[toSolve.length];
+            int id, answeredCount = 0;
+            while ((id = fromServer.readInt()) != SolveProtocol.END) { //the solutions come in the order they were ready
+                Solution solution = SolveProtocol.readBatchSolution(fromServer);
+                if (id < 0 || id >= received.length || answered[id])
+                    throw new IOException("bad maze id " + id);
+                received[id] = solution;
+                answered[id] = true;
+                answeredCount++;
+            }
+            if (answeredCount != received.length)
+                throw new IOException(String.format("the batch ended after %d of %d mazes", answeredCount, received.length));
+            writer.join();
+            this.solutions = received;
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
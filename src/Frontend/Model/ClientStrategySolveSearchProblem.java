@@ -1,12 +1,11 @@
 package Frontend.Model;
 
 import Backend.Client.IClientStrategy;
+import Backend.Server.SolveProtocol;
 import Backend.algorithms.mazeGenerators.Maze;
 import Backend.algorithms.search.Solution;
 
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 
 public class ClientStrategySolveSearchProblem implements IClientStrategy {
@@ -24,11 +23,8 @@ public class ClientStrategySolveSearchProblem implements IClientStrategy {
     @Override
     public void clientStrategy(InputStream inputStream, OutputStream outputStream) {
         try {
-            ObjectOutputStream toServer = new ObjectOutputStream(outputStream);
-            ObjectInputStream fromServer = new ObjectInputStream(inputStream);
-            toServer.writeObject(maze);
-            toServer.flush();
-            this.mazeSolution = (Solution) fromServer.readObject();
+            SolveProtocol.writeRequest(outputStream, maze);
+            this.mazeSolution = SolveProtocol.readResponse(inputStream);
         } catch (Exception var9) {
             var9.printStackTrace();
         }
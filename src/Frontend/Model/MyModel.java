@@ -1,8 +1,7 @@
 package Frontend.Model;
 
-import Backend.Client.Client;
+import Backend.Client.ClientConnectionPool;
 import Backend.Client.IClientStrategy;
-import Backend.IO.MyDecompressorInputStream;
 import Backend.Server.Configurations;
 import Backend.Server.Server;
 import Backend.Server.ServerStrategyGenerateMaze;
@@ -14,7 +13,6 @@ import Frontend.View.PlayerConfig;
 
 import java.io.*;
 import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -24,8 +22,7 @@ public class MyModel extends Observable implements IModel {
     private Position playerPosition;
     private Server mazeGeneratorServer;
     private Server mazeSolverServer;
-    private Client mazeGeneratorClient;
-    private Client mazeSolverClient;
+    private final ClientConnectionPool connectionPool = new ClientConnectionPool(2, 30 * 1000);
 
 
     public MyModel() {
@@ -52,8 +49,19 @@ public class MyModel extends Observable implements IModel {
             this.mazeGeneratorServer.stop();
         if (mazeSolverServer != null)
             this.mazeSolverServer.stop();
+        this.connectionPool.close();
     }
 
+    /**
+     * run a client strategy over a pooled connection to a local server
+     *
+     * @param port     server port
+     * @param strategy client strategy
+     * @throws IOException failed to communicate with the server
+     */
+    private void communicate(int port, IClientStrategy strategy) throws IOException {
+        this.connectionPool.communicate(InetAddress.getLocalHost(), port, strategy);
+    }
 
     @Override
     public void assignObserver(Observer Observer) {
@@ -63,28 +71,23 @@ public class MyModel extends Observable implements IModel {
     @Override
     public void generateMaze(int rows, int cols) {
         try {
-            this.mazeGeneratorClient = new Client(InetAddress.getLocalHost(), 5400, new IClientStrategy() {
+            this.communicate(5400, new IClientStrategy() {
                 public void clientStrategy(InputStream inFromServer, OutputStream outToServer) {
                     try {
                         ObjectOutputStream toServer = new ObjectOutputStream(outToServer);
-                        ObjectInputStream fromServer = new ObjectInputStream(inFromServer);
-                        toServer.flush();
                         int[] mazeDimensions = new int[]{rows, cols};
                         toServer.writeObject(mazeDimensions);
                         toServer.flush();
+                        ObjectInputStream fromServer = new ObjectInputStream(inFromServer); //after the request, so it can be sent as one frame
                         byte[] compressedMaze = (byte[]) fromServer.readObject();
-                        InputStream is = new MyDecompressorInputStream(new ByteArrayInputStream(compressedMaze));
-                        byte[] decompressedMaze = new byte[rows * cols + 12];
-                        is.read(decompressedMaze);
-                        setMaze(new Maze(decompressedMaze));
+                        setMaze(Maze.fromCompressed(compressedMaze));
                     } catch (Exception e) {
                         System.out.println("Communication problem with the Maze-Generator server");
                     }
                 }
             });
-            this.mazeGeneratorClient.communicateWithServer();
-        } catch (UnknownHostException e) {
-            System.out.println("cant create new mazeGeneratorClient..");
+        } catch (IOException e) {
+            System.out.println("Communication problem with the Maze-Generator server");
             return;
         }
         setChanged();
@@ -105,26 +108,15 @@ public class MyModel extends Observable implements IModel {
     public void solveMaze() {
         if (mazeSolverServer == null)
             this.startSolvingServers();
+        ClientStrategySolveSearchProblem solveStrategy = new ClientStrategySolveSearchProblem();
         try {
-            this.mazeSolverClient = new Client(InetAddress.getLocalHost(), 5401, new IClientStrategy() {
-                public void clientStrategy(InputStream inFromServer, OutputStream outToServer) {
-                    try {
-                        ObjectOutputStream toServer = new ObjectOutputStream(outToServer);
-                        ObjectInputStream fromServer = new ObjectInputStream(inFromServer);
-                        toServer.writeObject(maze);
-                        toServer.flush();
-                        mazeSolution = (Solution) fromServer.readObject();
-                    } catch (Exception e) {
-                        System.out.println("Communication problem with the Maze-Solver server");
-                    }
-                }
-            });
-        } catch (UnknownHostException e) {
-            System.out.println("cant create new mazeSolverClient..");
+            solveStrategy.setMaze(maze);
+            this.communicate(5401, solveStrategy);
+        } catch (IOException e) {
+            System.out.println("Communication problem with the Maze-Solver server");
             return;
         }
-
-        this.mazeSolverClient.communicateWithServer();
+        this.mazeSolution = solveStrategy.getSolution();
 
         setChanged();
         notifyObservers(ModelResponses.MazeSolved);
@@ -176,18 +168,26 @@ public class MyModel extends Observable implements IModel {
     }
 
     public void saveMaze(File chosen) {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(chosen))) {
-            out.writeObject(this.maze);
+        try {
+            this.maze.save(chosen);
         } catch (IOException e) {
             System.out.println("Maze haven't saved");
         }
     }
 
+    /**
+     * load a maze file - saved by Maze.save, or a Java serialized Maze that older versions saved
+     *
+     * @param chosen maze file
+     */
     public void loadMaze(File chosen) {
-        Maze tempMaze = null;
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(chosen))) {
-            tempMaze = (Maze) in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        Maze tempMaze;
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(chosen))) {
+            in.mark(2);
+            boolean serialized = in.read() == 0xAC && in.read() == 0xED; //Java serialization stream magic
+            in.reset();
+            tempMaze = serialized ? readSerializedMaze(in) : Maze.open(chosen);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
             System.out.println("Maze not allowed");
             return;
         }
@@ -195,4 +195,19 @@ public class MyModel extends Observable implements IModel {
         setChanged();
         notifyObservers(ModelResponses.MazeLoaded);
     }
+
+    /**
+     * read a Java serialized Maze, only the classes of a Maze are allowed in the stream
+     *
+     * @param in stream of the file
+     * @return the maze
+     * @throws IOException            failed to read or not a Maze
+     * @throws ClassNotFoundException unknown class in the stream
+     */
+    private static Maze readSerializedMaze(InputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream fromFile = new ObjectInputStream(in);
+        fromFile.setObjectInputFilter(ObjectInputFilter.Config.createFilter(
+                "maxdepth=4;" + Maze.class.getName() + ";" + Position.class.getName() + ";!*"));
+        return (Maze) fromFile.readObject();
+    }
 }